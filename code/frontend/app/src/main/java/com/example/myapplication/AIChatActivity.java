@@ -24,16 +24,22 @@ import com.example.myapplication.network.BaseResponse;
 import com.example.myapplication.sensor.SensorDataCollector;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 import okhttp3.MediaType;
 import okhttp3.MultipartBody;
 import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
@@ -77,6 +83,9 @@ public class AIChatActivity extends AppCompatActivity implements SensorDataColle
     
     // Timeout and retry functionality
     private Call<BaseResponse> currentApiCall;
+    private Call<ResponseBody> currentStreamCall;
+    // Reads streamed answers off the main thread
+    private final ExecutorService streamExecutor = Executors.newSingleThreadExecutor();
     private Runnable currentTimeoutTask;
     private TextView currentAiThinkingView;
 
@@ -148,15 +157,13 @@ public class AIChatActivity extends AppCompatActivity implements SensorDataColle
             if (isRecommendationQuestion(message)) {
                 handlePlantRecommendationRequest(message, aiThinking);
             } else {
-                // Regular plant question with timeout and retry
+                // Regular plant question, answer is shown as it streams in
                 Runnable retryAction = () -> {
                     TextView newAiThinking = addMessage("🌱 Plant AI: ...", false);
-                    Call<BaseResponse> call = apiService.askPlantQuestion(message);
-                    executeWithTimeout(call, newAiThinking, null);
+                    streamPlantQuestion(message, newAiThinking, null);
                 };
-                
-                Call<BaseResponse> call = apiService.askPlantQuestion(message);
-                executeWithTimeout(call, aiThinking, retryAction);
+
+                streamPlantQuestion(message, aiThinking, retryAction);
             }
         }
     }
@@ -784,6 +791,7 @@ public class AIChatActivity extends AppCompatActivity implements SensorDataColle
         }
         // Cancel any pending API calls
         cancelCurrentApiCall();
+        streamExecutor.shutdownNow();
     }
     
     // Cancel current API call if exists
@@ -792,6 +800,10 @@ public class AIChatActivity extends AppCompatActivity implements SensorDataColle
             currentApiCall.cancel();
             Log.d(TAG, "API call cancelled");
         }
+        if (currentStreamCall != null && !currentStreamCall.isCanceled()) {
+            currentStreamCall.cancel();
+            Log.d(TAG, "Streaming API call cancelled");
+        }
         if (currentTimeoutTask != null) {
             handler.removeCallbacks(currentTimeoutTask);
             currentTimeoutTask = null;
@@ -844,6 +856,113 @@ public class AIChatActivity extends AppCompatActivity implements SensorDataColle
         });
     }
     
+    // Ask a plant question and render the answer token by token as the server streams it
+    private void streamPlantQuestion(String question, TextView aiThinking, Runnable retryAction) {
+        cancelCurrentApiCall();
+
+        Call<ResponseBody> call = apiService.askPlantQuestionStream(question);
+        currentStreamCall = call;
+        currentAiThinkingView = aiThinking;
+
+        // Time out only if nothing at all arrives (15 seconds), not on long answers
+        currentTimeoutTask = () -> {
+            if (currentStreamCall == call && !call.isCanceled()) {
+                cancelCurrentApiCall();
+                showTimeoutMessage(aiThinking, retryAction);
+            }
+        };
+        handler.postDelayed(currentTimeoutTask, 15000);
+
+        call.enqueue(new Callback<ResponseBody>() {
+            @Override
+            public void onResponse(Call<ResponseBody> call, Response<ResponseBody> response) {
+                if (!response.isSuccessful() || response.body() == null) {
+                    cancelTimeout();
+                    showErrorWithRetry(aiThinking, "Server returned " + response.code(), retryAction);
+                    return;
+                }
+                ResponseBody body = response.body();
+                try {
+                    streamExecutor.execute(() -> readAnswerStream(call, body, aiThinking, retryAction));
+                } catch (RejectedExecutionException e) {
+                    // activity destroyed
+                    body.close();
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ResponseBody> call, Throwable t) {
+                cancelTimeout();
+                if (call.isCanceled()) {
+                    Log.d(TAG, "Streaming API call was cancelled");
+                } else {
+                    showErrorWithRetry(aiThinking, "Connection failed: " + t.getMessage(), retryAction);
+                }
+            }
+        });
+    }
+
+    // Runs on streamExecutor: parse the server-sent events and update the message on the UI thread
+    private void readAnswerStream(Call<ResponseBody> call, ResponseBody body, TextView aiThinking, Runnable retryAction) {
+        StringBuilder answer = new StringBuilder();
+        String event = null;
+        try (BufferedSource source = body.source()) {
+            String line;
+            while ((line = source.readUtf8Line()) != null) {
+                if (line.isEmpty()) {
+                    event = null;
+                } else if (line.startsWith("event:")) {
+                    event = line.substring(6).trim();
+                } else if (line.startsWith("data:")) {
+                    JsonObject data = JsonParser.parseString(line.substring(5).trim()).getAsJsonObject();
+                    if ("token".equals(event)) {
+                        boolean first = answer.length() == 0;
+                        String token = data.get("text").getAsString();
+                        answer.append(token);
+                        runOnUiThread(() -> {
+                            if (first) {
+                                cancelTimeout();
+                                aiThinking.setText("🌱 Plant AI: ");
+                            }
+                            aiThinking.append(token);
+                            chatScrollView.post(() -> chatScrollView.fullScroll(ScrollView.FOCUS_DOWN));
+                        });
+                    } else if ("done".equals(event)) {
+                        String fullText = "🌱 Plant AI: " + data.get("answer").getAsString();
+                        runOnUiThread(() -> {
+                            cancelTimeout();
+                            markwon.setMarkdown(aiThinking, fullText);
+                            chatScrollView.post(() -> chatScrollView.fullScroll(ScrollView.FOCUS_DOWN));
+                        });
+                        return;
+                    } else if ("error".equals(event)) {
+                        runOnUiThread(this::cancelTimeout);
+                        showErrorWithRetry(aiThinking, data.get("message").getAsString(), retryAction);
+                        return;
+                    }
+                }
+            }
+            // stream ended without "done"
+            if (!call.isCanceled()) {
+                runOnUiThread(this::cancelTimeout);
+                showErrorWithRetry(aiThinking, "Answer was cut off", retryAction);
+            }
+        } catch (IOException | RuntimeException e) {
+            if (!call.isCanceled()) {
+                Log.e(TAG, "Error reading streamed answer", e);
+                runOnUiThread(this::cancelTimeout);
+                showErrorWithRetry(aiThinking, "Connection lost: " + e.getMessage(), retryAction);
+            }
+        }
+    }
+
+    private void cancelTimeout() {
+        if (currentTimeoutTask != null) {
+            handler.removeCallbacks(currentTimeoutTask);
+            currentTimeoutTask = null;
+        }
+    }
+
     // Show timeout message with retry button
     private void showTimeoutMessage(TextView aiThinking, Runnable retryAction) {
         runOnUiThread(() -> {
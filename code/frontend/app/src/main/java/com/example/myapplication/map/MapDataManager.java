@@ -1,6 +1,8 @@
 package com.example.myapplication.map;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import com.example.myapplication.network.GardenDto;
@@ -9,8 +11,10 @@ import com.example.myapplication.network.PlantMapDto;
 import com.example.myapplication.network.ApiClient;
 import com.example.myapplication.network.ApiResponse;
 import com.example.myapplication.network.ApiService;
+import com.example.myapplication.network.PlantLikeState;
 import com.example.myapplication.util.LogUtil;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import retrofit2.Call;
@@ -30,6 +34,13 @@ public class MapDataManager {
     
     // Search configuration
     private static final int DEFAULT_SEARCH_RADIUS = 1000; // meters
+
+    // Like toggles made within this window are sent together in one batch request
+    private static final long LIKE_BATCH_DELAY_MS = 300;
+
+    private final Handler likeHandler = new Handler(Looper.getMainLooper());
+    private final List<PendingLike> pendingLikes = new ArrayList<>();
+    private final Runnable flushLikesRunnable = this::flushLikes;
     
     public MapDataManager(Context context) {
         this.context = context;
@@ -156,42 +167,89 @@ public class MapDataManager {
     }
     
     /**
-     * Like plant
+     * Like plant (batched, see flushLikes)
      */
     public void likePlant(int plantId, MapDataCallback<String> callback) {
-        Call<ApiResponse<String>> call = apiService.likePlant(plantId);
-        call.enqueue(new Callback<ApiResponse<String>>() {
-            @Override
-            public void onResponse(Call<ApiResponse<String>> call, Response<ApiResponse<String>> response) {
-                handleApiResponse(response, "like plant", callback);
-            }
-            
-            @Override
-            public void onFailure(Call<ApiResponse<String>> call, Throwable t) {
-                LogUtil.e(TAG, "Like plant failed", t);
-                callback.onError("Network error: " + t.getMessage());
-            }
-        });
+        queueLike(plantId, true, callback);
     }
     
     /**
-     * Unlike plant
+     * Unlike plant (batched, see flushLikes)
      */
     public void unlikePlant(int plantId, MapDataCallback<String> callback) {
-        Call<ApiResponse<String>> call = apiService.unlikePlant(plantId);
-        call.enqueue(new Callback<ApiResponse<String>>() {
+        queueLike(plantId, false, callback);
+    }
+
+    /**
+     * Queues a like toggle and restarts the batch window, so a burst of taps becomes one request.
+     */
+    private void queueLike(int plantId, boolean liked, MapDataCallback<String> callback) {
+        pendingLikes.add(new PendingLike(plantId, liked, callback));
+        likeHandler.removeCallbacks(flushLikesRunnable);
+        likeHandler.postDelayed(flushLikesRunnable, LIKE_BATCH_DELAY_MS);
+    }
+
+    /**
+     * Sends all queued like toggles with POST /api/plants/likes:batch.
+     * The backend applies them in order, so the last toggle of a plant wins.
+     */
+    private void flushLikes() {
+        if (pendingLikes.isEmpty()) {
+            return;
+        }
+        List<PendingLike> batch = new ArrayList<>(pendingLikes);
+        pendingLikes.clear();
+
+        List<PlantLikeState> operations = new ArrayList<>();
+        for (PendingLike pending : batch) {
+            operations.add(new PlantLikeState(pending.plantId, pending.liked));
+        }
+        LogUtil.d(TAG, "Sending " + operations.size() + " like operations in one batch");
+
+        apiService.likeBatch(operations).enqueue(new Callback<ApiResponse<List<PlantLikeState>>>() {
             @Override
-            public void onResponse(Call<ApiResponse<String>> call, Response<ApiResponse<String>> response) {
-                handleApiResponse(response, "unlike plant", callback);
+            public void onResponse(Call<ApiResponse<List<PlantLikeState>>> call, Response<ApiResponse<List<PlantLikeState>>> response) {
+                handleApiResponse(response, "like batch", new MapDataCallback<List<PlantLikeState>>() {
+                    @Override
+                    public void onSuccess(List<PlantLikeState> data) {
+                        for (PendingLike pending : batch) {
+                            pending.callback.onSuccess(pending.liked ? "liked" : "unliked");
+                        }
+                    }
+
+                    @Override
+                    public void onError(String message) {
+                        for (PendingLike pending : batch) {
+                            pending.callback.onError(message);
+                        }
+                    }
+                });
             }
-            
+
             @Override
-            public void onFailure(Call<ApiResponse<String>> call, Throwable t) {
-                LogUtil.e(TAG, "Unlike plant failed", t);
-                callback.onError("Network error: " + t.getMessage());
+            public void onFailure(Call<ApiResponse<List<PlantLikeState>>> call, Throwable t) {
+                LogUtil.e(TAG, "Like batch failed", t);
+                for (PendingLike pending : batch) {
+                    pending.callback.onError("Network error: " + t.getMessage());
+                }
             }
         });
     }
+
+    /**
+     * A like toggle waiting for the next batch request
+     */
+    private static class PendingLike {
+        final int plantId;
+        final boolean liked;
+        final MapDataCallback<String> callback;
+
+        PendingLike(int plantId, boolean liked, MapDataCallback<String> callback) {
+            this.plantId = plantId;
+            this.liked = liked;
+            this.callback = callback;
+        }
+    }
     
     /**
      * Data callback interface
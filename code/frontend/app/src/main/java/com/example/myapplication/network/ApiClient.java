@@ -2,8 +2,10 @@ package com.example.myapplication.network;
 
 import android.content.Context;
 
+import java.io.File;
 import java.util.concurrent.TimeUnit;
 
+import okhttp3.Cache;
 import okhttp3.OkHttpClient;
 import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Retrofit;
@@ -23,6 +25,7 @@ import retrofit2.converter.gson.GsonConverterFactory;
  * - HTTP request/response logging for debugging
  * - JWT token injection via AuthInterceptor
  * - Extended timeouts for image uploads
+ * - Shared HTTP disk cache, so ETag responses (e.g. /api/wiki/all) are revalidated with 304
  * 
  * Usage:
  * ApiService apiService = ApiClient.create(context);
@@ -31,7 +34,19 @@ import retrofit2.converter.gson.GsonConverterFactory;
 public class ApiClient {
     // Production server base URL
     //private static final String BASE_URL = "http://localhost:9999/";
-    private static final String BASE_URL = "https://mobile.kevinauhome.com";
+    public static final String BASE_URL = "https://mobile.kevinauhome.com";
+
+    private static final long HTTP_CACHE_SIZE = 20L * 1024 * 1024;
+
+    // OkHttp requires a single Cache instance per directory
+    private static Cache httpCache;
+
+    private static synchronized Cache httpCache(Context context) {
+        if (httpCache == null) {
+            httpCache = new Cache(new File(context.getApplicationContext().getCacheDir(), "http"), HTTP_CACHE_SIZE);
+        }
+        return httpCache;
+    }
 
     /**
      * Creates a configured ApiService instance.
@@ -49,6 +64,7 @@ public class ApiClient {
         OkHttpClient client = new OkHttpClient.Builder()
                 .addInterceptor(new AuthInterceptor(context))  // Add JWT token to requests
                 .addInterceptor(logging)                       // Log HTTP traffic
+                .cache(httpCache(context))                     // Conditional requests for cacheable responses
                 .connectTimeout(60, TimeUnit.SECONDS)          // Connection timeout
                 .readTimeout(120, TimeUnit.SECONDS)            // Read timeout (for large responses)
                 .writeTimeout(60, TimeUnit.SECONDS)            // Write timeout (for uploads)
@@ -6,11 +6,13 @@ import com.example.myapplication.network.GardenDto;
 import com.example.myapplication.network.PlantDto;
 import com.example.myapplication.network.ApiResponse;
 import java.util.List;
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.GET;
 import retrofit2.http.POST;
 import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 
 /**
  * Defines the REST API endpoints for the application.
@@ -60,6 +62,13 @@ public interface ApiService {
     
     @GET("api/plant-ai/ask")
     Call<BaseResponse> askPlantQuestion(@Query("question") String question);
+
+    /**
+     * Streamed answer as server-sent events ("token", then "done" or "error"), read with body().source().
+     */
+    @Streaming
+    @GET("api/plant-ai/ask/stream")
+    Call<ResponseBody> askPlantQuestionStream(@Query("question") String question);
     
     @retrofit2.http.Multipart
     @POST("api/plant-ai/identify")
@@ -79,6 +88,16 @@ public interface ApiService {
     @GET("/api/wiki/all")
     Call<ApiResponse<List<PlantWikiDto>>> getAllWikis();
 
+    /**
+     * Server-side search over plant and wiki names, scientific names and descriptions.
+     * The last word matches as a prefix, suitable for type-ahead.
+     * @param query Search text
+     * @param type "plant", "wiki", or null for both
+     * @param limit Maximum number of results
+     */
+    @GET("/api/search")
+    Call<ApiResponse<List<SearchHitDto>>> search(@Query("q") String query, @Query("type") String type, @Query("limit") int limit);
+
     // --- Map Data Endpoints ---
     
     /**
@@ -110,6 +129,14 @@ public interface ApiService {
     @POST("/api/plants/unlike")
     Call<ApiResponse<String>> unlikePlant(@Query("plantId") int plantId);
 
+    /**
+     * Applies several like/unlike operations in one request.
+     * @param operations Plant IDs with the wanted liked state, the last one per plant wins
+     * @return Call containing ApiResponse with the final state of each plant
+     */
+    @POST("/api/plants/likes:batch")
+    Call<ApiResponse<List<PlantLikeState>>> likeBatch(@Body List<PlantLikeState> operations);
+
     /**
      * Fetches all plants from a specific garden
      */
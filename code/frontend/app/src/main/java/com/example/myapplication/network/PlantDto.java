@@ -79,6 +79,10 @@ public class PlantDto implements Serializable {
     /** Whether user marked this plant as favourite */
     @SerializedName("isFavourite")
     private boolean isFavourite;
+
+    /** Number of users who liked this plant */
+    @SerializedName("likeCount")
+    private int likeCount;
     
     // ===== Timestamps =====
     
@@ -171,6 +175,7 @@ public class PlantDto implements Serializable {
     public String getDiscoveredBy() { return discoveredBy; }
     public String getDescription() { return description; }
     public boolean isFavourite() { return isFavourite; }
+    public int getLikeCount() { return likeCount; }
     public Double getLatitude() { return latitude; }
     public Double getLongitude() { return longitude; }
     public int getUserId() { return userId; }
@@ -0,0 +1,26 @@
+package com.example.myapplication.network;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * One like/unlike operation for POST /api/plants/likes:batch,
+ * and the resulting state returned by the backend.
+ */
+public class PlantLikeState {
+
+    @SerializedName("plantId")
+    private long plantId;
+
+    @SerializedName("liked")
+    private boolean liked;
+
+    public PlantLikeState() {}
+
+    public PlantLikeState(long plantId, boolean liked) {
+        this.plantId = plantId;
+        this.liked = liked;
+    }
+
+    public long getPlantId() { return plantId; }
+    public boolean isLiked() { return liked; }
+}
@@ -40,6 +40,13 @@ public class PlantMapDto implements Serializable {
     @SerializedName("discoveredBy")
     private String discoveredBy;
 
+    // Like state for the current user, computed by the backend
+    @SerializedName("likeCount")
+    private int likeCount;
+
+    @SerializedName("isFavourite")
+    private boolean isFavourite;
+
     // Constructors
     public PlantMapDto() {}
 
@@ -99,6 +106,14 @@ public class PlantMapDto implements Serializable {
         return discoveredBy;
     }
 
+    public int getLikeCount() {
+        return likeCount;
+    }
+
+    public boolean isFavourite() {
+        return isFavourite;
+    }
+
     // Setters
     public void setPlantId(Long plantId) {
         this.plantId = plantId;
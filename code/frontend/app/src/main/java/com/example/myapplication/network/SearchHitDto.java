@@ -0,0 +1,31 @@
+package com.example.myapplication.network;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * One result of GET /api/search, best matches first.
+ * type is "plant" (id = plantId) or "wiki" (id = plantWikiId).
+ */
+public class SearchHitDto {
+
+    @SerializedName("type")
+    private String type;
+
+    @SerializedName("id")
+    private long id;
+
+    @SerializedName("name")
+    private String name;
+
+    @SerializedName("scientificName")
+    private String scientificName;
+
+    @SerializedName("score")
+    private double score;
+
+    public String getType() { return type; }
+    public long getId() { return id; }
+    public String getName() { return name; }
+    public String getScientificName() { return scientificName; }
+    public double getScore() { return score; }
+}
@@ -1,7 +1,6 @@
 package com.example.myapplication.ui.myplants.myGarden;
 
 import android.os.Bundle;
-import android.util.Base64;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -13,7 +12,6 @@ import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import androidx.navigation.Navigation;
 
-import com.bumptech.glide.Glide;
 import com.example.myapplication.R;
 import com.example.myapplication.databinding.PlantdetailBinding;
 import com.example.myapplication.network.ApiClient;
@@ -21,6 +19,7 @@ import com.example.myapplication.network.ApiResponse;
 import com.example.myapplication.network.ApiService;
 import com.example.myapplication.network.User;
 import com.example.myapplication.ui.myplants.share.Plant;
+import com.example.myapplication.utils.ImageUtils;
 // Removed interactive dependencies; display-only fragment
 
 import java.text.ParseException;
@@ -207,23 +206,8 @@ public class PlantDetailFragment extends Fragment {
             binding.textViewDiscoveredOn.setText("Date not available");
         }
 
-        // Load plant image with Base64 decoding
-        try {
-            String base64Image = plant.getImageUrl();
-            if (base64Image == null || base64Image.isEmpty()) {
-                binding.imageViewPlantPreview.setImageResource(R.drawable.plantbulb_foreground);
-            } else {
-                byte[] imageBytes = Base64.decode(base64Image, Base64.DEFAULT);
-                Glide.with(this)
-                        .load(imageBytes)
-                        .placeholder(R.drawable.plantbulb_foreground)
-                        .error(R.drawable.plantbulb_foreground)
-                        .into(binding.imageViewPlantPreview);
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Failed to decode or load image for plant: " + (plant.getName() != null ? plant.getName() : "Unknown"), e);
-            binding.imageViewPlantPreview.setImageResource(R.drawable.plantbulb_foreground);
-        }
+        // Load plant image (inline Base64 or image endpoint)
+        ImageUtils.loadPlantImage(binding.imageViewPlantPreview, plant, ImageUtils.DETAIL_IMAGE_SIZE);
     }
 
     /**
@@ -1,7 +1,6 @@
 package com.example.myapplication.ui.myplants.share;
 
 import android.content.Context;
-import android.util.Base64;
 import android.util.Log;
 import android.util.TypedValue;
 import android.view.LayoutInflater;
@@ -15,8 +14,8 @@ import androidx.constraintlayout.widget.ConstraintLayout;
 import androidx.constraintlayout.widget.ConstraintSet;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
 import com.example.myapplication.R;
+import com.example.myapplication.utils.ImageUtils;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -29,7 +28,7 @@ import java.util.Locale;
  * Purpose:
  * - Display plant collections in MyGardenFragment and PlantWikiFragment
  * - Support two view modes: grid (2 columns) and list (with dates)
- * - Handle Base64 encoded images from backend
+ * - Handle inline Base64 images or lazy image loading from backend
  * - Manage click events for navigation to plant details
  *
  * View Types:
@@ -137,16 +136,15 @@ public class PlantCardAdapter extends RecyclerView.Adapter<PlantCardAdapter.Plan
      *
      * Process:
      * 1. Set plant name
-     * 2. Load Base64 image with Glide (with error handling)
+     * 2. Load image with Glide (inline Base64 or image endpoint)
      * 3. Set click listener
      * 4. Apply view-specific layout constraints
      * 5. Format and display date (list view only)
      *
      * Image Handling:
-     * - Decodes Base64 string to byte array
-     * - Uses Glide for efficient loading
+     * - Delegates to ImageUtils.loadPlantImage
+     * - Decodes inline Base64, otherwise fetches the plant image endpoint
      * - Shows placeholder on error
-     * - Handles null/empty/malformed Base64
      *
      * Layout Switching:
      * - Uses ConstraintSet to dynamically adjust layout
@@ -160,33 +158,8 @@ public class PlantCardAdapter extends RecyclerView.Adapter<PlantCardAdapter.Plan
         // Set plant name
         holder.textViewPlantName.setText(plant.getName());
 
-        // Handle Base64 encoded image
-        String base64Image = plant.getImageUrl();
-
-        try {
-            if (base64Image != null && !base64Image.isEmpty()) {
-                // Decode Base64 to byte array
-                byte[] imageBytes = Base64.decode(base64Image, Base64.DEFAULT);
-
-                // Load with Glide
-                Glide.with(holder.itemView.getContext())
-                        .load(imageBytes)
-                        .placeholder(R.drawable.plantbulb_foreground)
-                        .error(R.drawable.plantbulb_foreground)
-                        .into(holder.imageViewPlant);
-            } else {
-                // No image - show placeholder
-                Glide.with(holder.itemView.getContext())
-                        .load(R.drawable.plantbulb_foreground)
-                        .into(holder.imageViewPlant);
-            }
-        } catch (IllegalArgumentException e) {
-            // Malformed Base64 - show placeholder
-            Log.e(TAG, "Failed to decode Base64 string for plant: " + plant.getName(), e);
-            Glide.with(holder.itemView.getContext())
-                    .load(R.drawable.plantbulb_foreground)
-                    .into(holder.imageViewPlant);
-        }
+        // Inline Base64 image, or lazy load from /api/plants/{id}/image
+        ImageUtils.loadPlantImage(holder.imageViewPlant, plant, ImageUtils.CARD_IMAGE_SIZE);
 
         // Set click listener
         holder.itemView.setOnClickListener(v -> onPlantClickListener.onPlantClick(plant));
@@ -2,6 +2,8 @@ package com.example.myapplication.ui.myplants.uploadPlants;
 
 import android.content.Context;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.Editable;
 import android.text.TextWatcher;
 import android.util.Log;
@@ -22,7 +24,7 @@ import com.example.myapplication.databinding.AddplantBinding;
 import com.example.myapplication.network.ApiClient;
 import com.example.myapplication.network.ApiResponse;
 import com.example.myapplication.network.ApiService;
-import com.example.myapplication.network.PlantWikiDto;
+import com.example.myapplication.network.SearchHitDto;
 import com.example.myapplication.ui.myplants.share.SearchResultAdapter;
 
 import java.util.ArrayList;
@@ -43,24 +45,22 @@ import retrofit2.Response;
  * - Support favourite flow from MyGardenFragment
  * 
  * User Flow:
- * 1. Fragment loads all plant names from wiki API
- * 2. Displays full list of plant names by default
- * 3. User can search/filter by typing (real-time)
+ * 1. User types part of a plant name
+ * 2. Matching wiki names are searched on the server (debounced)
+ * 3. Results are shown best match first
  * 4. User selects plant name from list or enters custom name
  * 5. User clicks next button to proceed to camera capture
  * 6. Selected name passed to CaptureFragment → UploadFragment
  * 
  * Key Features:
- * - Real-time search filtering
- * - Show all plants by default (before typing)
+ * - Server-side type-ahead search (no full wiki download)
  * - Auto-hide keyboard on selection
  * - Loading indicators during data fetch
  * - Empty state handling
  * - Navigation to camera capture with pre-filled data
  * 
  * API Integration:
- * - GET /api/wiki/all - Fetches all plant names from encyclopedia
- * - Extracts common names from PlantWikiDto
+ * - GET /api/search?type=wiki - Ranked name search over the encyclopedia
  * - Removes duplicates and empty names
  * 
  * Arguments:
@@ -83,8 +83,20 @@ public class AddPlantFragment extends Fragment {
     /** RecyclerView adapter for displaying searchable plant names */
     private SearchResultAdapter searchAdapter;
 
-    /** Complete list of plant names from wiki (cached for filtering) */
-    private final List<String> allPlantCommonNames = new ArrayList<>();
+    /** Wait for a pause in typing before searching */
+    private static final long SEARCH_DEBOUNCE_MS = 250;
+
+    /** Number of names requested per search */
+    private static final int SEARCH_LIMIT = 20;
+
+    private ApiService apiService;
+
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+
+    private Runnable pendingSearch = () -> {};
+
+    /** In-flight search, cancelled when the query changes */
+    private Call<ApiResponse<List<SearchHitDto>>> currentSearchCall;
     
     /** Whether user is adding to favourites (passed from MyGardenFragment) */
     private boolean isFavouriteFlow = false;
@@ -104,14 +116,14 @@ public class AddPlantFragment extends Fragment {
      * 1. Get navigation controller
      * 2. Retrieve isFavouriteFlow argument from MyGardenFragment
      * 3. Setup RecyclerView with adapter and click listener
-     * 4. Setup search field listeners
-     * 5. Fetch all plant names from wiki API
-     * 6. Setup back and next button listeners
+     * 4. Setup search field listeners (server-side search as the user types)
+     * 5. Setup back and next button listeners
      */
     @Override
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
         navController = Navigation.findNavController(view);
+        apiService = ApiClient.create(requireContext());
 
         // Retrieve favourite flow flag from arguments
         if (getArguments() != null) {
@@ -120,79 +132,10 @@ public class AddPlantFragment extends Fragment {
 
         setupRecyclerView();
         setupSearchLogic();
-        fetchAllPlantNamesFromServer();
         setupBackButton();
         setupNextButton();
     }
 
-    /**
-     * Fetches all plant names from wiki API for searchable list.
-     * 
-     * Process:
-     * 1. Show loading indicator
-     * 2. Make API call to GET /api/wiki/all
-     * 3. Extract common names from PlantWikiDto list
-     * 4. Remove duplicates and empty names
-     * 5. Display full list immediately (default state)
-     * 6. Handle errors with user-friendly messages
-     * 
-     * Default Behavior:
-     * - Shows all plant names immediately after loading
-     * - User can then filter by typing
-     * - Provides better UX than empty initial state
-     */
-    private void fetchAllPlantNamesFromServer() {
-        Log.d(TAG, "Fetching all plant names from server...");
-
-        binding.progressBarSearch.setVisibility(View.VISIBLE);
-        binding.textViewSearchStatus.setText("Loading plant names...");
-        binding.textViewSearchStatus.setVisibility(View.VISIBLE);
-        binding.recyclerViewScientificNames.setVisibility(View.GONE);
-
-        ApiService apiService = ApiClient.create(requireContext());
-        Call<ApiResponse<List<PlantWikiDto>>> call = apiService.getAllWikis();
-
-        call.enqueue(new Callback<ApiResponse<List<PlantWikiDto>>>() {
-            @Override
-            public void onResponse(@NonNull Call<ApiResponse<List<PlantWikiDto>>> call, @NonNull Response<ApiResponse<List<PlantWikiDto>>> response) {
-                if (binding == null) return; // View destroyed, do nothing
-                binding.progressBarSearch.setVisibility(View.GONE);
-
-                if (response.isSuccessful() && response.body() != null && response.body().getData() != null) {
-                    // Extract and filter plant names
-                    allPlantCommonNames.clear();
-                    List<String> fetchedNames = response.body().getData().stream()
-                            .map(PlantWikiDto::getName)
-                            .filter(name -> name != null && !name.isEmpty())
-                            .distinct() // Remove duplicates
-                            .collect(Collectors.toList());
-
-                    allPlantCommonNames.addAll(fetchedNames);
-                    Log.d(TAG, "Successfully loaded " + allPlantCommonNames.size() + " unique plant names.");
-
-                    // Show full list immediately (default state before user types)
-                    searchAdapter.updateData(allPlantCommonNames);
-                    binding.recyclerViewScientificNames.setVisibility(View.VISIBLE);
-                    binding.textViewSearchStatus.setVisibility(View.GONE);
-
-                } else {
-                    // API error
-                    Log.e(TAG, "Failed to fetch plant names. Code: " + response.code());
-                    binding.textViewSearchStatus.setText("Failed to load plant list. Please try again.");
-                }
-            }
-
-            @Override
-            public void onFailure(@NonNull Call<ApiResponse<List<PlantWikiDto>>> call, @NonNull Throwable t) {
-                // Network error
-                if (binding == null) return;
-                binding.progressBarSearch.setVisibility(View.GONE);
-                binding.textViewSearchStatus.setText("Network error. Please check connection.");
-                Log.e(TAG, "Network error fetching plant names.", t);
-            }
-        });
-    }
-
     /**
      * Initializes RecyclerView with adapter and item click listener.
      * 
@@ -221,20 +164,20 @@ public class AddPlantFragment extends Fragment {
     }
 
     /**
-     * Sets up search field listener for real-time filtering.
+     * Sets up search field listener for server-side type-ahead.
      * 
      * Initial State:
-     * - Empty status message
-     * - RecyclerView hidden (until data loads)
+     * - Hint message
+     * - RecyclerView hidden (until the user types)
      * 
      * TextWatcher:
-     * - Triggers filterPlantNames() on each text change
-     * - Provides instant search results
+     * - Restarts a SEARCH_DEBOUNCE_MS timer on each text change
+     * - searchPlantNames() runs once typing pauses
      */
     private void setupSearchLogic() {
-        // Initial state (will be updated when data loads)
-        binding.textViewSearchStatus.setText("");
-        binding.textViewSearchStatus.setVisibility(View.GONE);
+        // Initial state (results appear once the user types)
+        binding.textViewSearchStatus.setText("Type to search plant names");
+        binding.textViewSearchStatus.setVisibility(View.VISIBLE);
         binding.recyclerViewScientificNames.setVisibility(View.GONE);
 
         // Real-time search filtering
@@ -244,7 +187,10 @@ public class AddPlantFragment extends Fragment {
 
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
-                filterPlantNames(s.toString());
+                String query = s.toString();
+                searchHandler.removeCallbacks(pendingSearch);
+                pendingSearch = () -> searchPlantNames(query);
+                searchHandler.postDelayed(pendingSearch, SEARCH_DEBOUNCE_MS);
             }
 
             @Override
@@ -253,46 +199,71 @@ public class AddPlantFragment extends Fragment {
     }
 
     /**
-     * Filters plant names based on search query.
-     * 
-     * Filter Logic:
-     * - Empty query: Show all plants (full list)
-     * - Non-empty query: Filter by case-insensitive substring match
-     * 
-     * UI Updates:
-     * - Empty results: Hide RecyclerView, show "No results found"
-     * - Has results: Show RecyclerView, hide status message
-     * 
-     * Performance:
-     * - Operates on cached allPlantCommonNames (no API calls)
-     * - Uses Java Streams for efficient filtering
-     * 
+     * Searches wiki plant names on the server with GET /api/search.
+     *
+     * Process:
+     * 1. Cancel the previous in-flight search
+     * 2. Empty query: clear results and show the hint
+     * 3. Otherwise fetch the best SEARCH_LIMIT matches (last word matches as a prefix)
+     * 4. Show distinct names in ranking order, or "No results found."
+     *
      * @param query Search text from search field
      */
-    private void filterPlantNames(String query) {
-        List<String> filteredList;
-
-        if (query.isEmpty()) {
-            // Empty query - show all plants
-            filteredList = new ArrayList<>(allPlantCommonNames);
-        } else {
-            // Filter by case-insensitive substring match
-            filteredList = allPlantCommonNames.stream()
-                    .filter(name -> name.toLowerCase().contains(query.toLowerCase()))
-                    .collect(Collectors.toList());
+    private void searchPlantNames(String query) {
+        if (currentSearchCall != null) {
+            currentSearchCall.cancel();
+            currentSearchCall = null;
         }
-
-        searchAdapter.updateData(filteredList);
-
-        // Update visibility based on results
-        if (filteredList.isEmpty()) {
+        if (query.trim().isEmpty()) {
+            searchAdapter.updateData(new ArrayList<>());
+            binding.progressBarSearch.setVisibility(View.GONE);
             binding.recyclerViewScientificNames.setVisibility(View.GONE);
-            binding.textViewSearchStatus.setText("No results found.");
+            binding.textViewSearchStatus.setText("Type to search plant names");
             binding.textViewSearchStatus.setVisibility(View.VISIBLE);
-        } else {
-            binding.recyclerViewScientificNames.setVisibility(View.VISIBLE);
-            binding.textViewSearchStatus.setVisibility(View.GONE);
+            return;
         }
+
+        binding.progressBarSearch.setVisibility(View.VISIBLE);
+        Call<ApiResponse<List<SearchHitDto>>> call = apiService.search(query, "wiki", SEARCH_LIMIT);
+        currentSearchCall = call;
+        call.enqueue(new Callback<ApiResponse<List<SearchHitDto>>>() {
+            @Override
+            public void onResponse(@NonNull Call<ApiResponse<List<SearchHitDto>>> call, @NonNull Response<ApiResponse<List<SearchHitDto>>> response) {
+                if (binding == null || call != currentSearchCall) return; // View destroyed or superseded
+                binding.progressBarSearch.setVisibility(View.GONE);
+
+                if (response.isSuccessful() && response.body() != null && response.body().getData() != null) {
+                    List<String> names = response.body().getData().stream()
+                            .map(SearchHitDto::getName)
+                            .filter(name -> name != null && !name.isEmpty())
+                            .distinct()
+                            .collect(Collectors.toList());
+                    searchAdapter.updateData(names);
+
+                    if (names.isEmpty()) {
+                        binding.recyclerViewScientificNames.setVisibility(View.GONE);
+                        binding.textViewSearchStatus.setText("No results found.");
+                        binding.textViewSearchStatus.setVisibility(View.VISIBLE);
+                    } else {
+                        binding.recyclerViewScientificNames.setVisibility(View.VISIBLE);
+                        binding.textViewSearchStatus.setVisibility(View.GONE);
+                    }
+                } else {
+                    Log.e(TAG, "Plant name search failed. Code: " + response.code());
+                    binding.textViewSearchStatus.setText("Search failed. Please try again.");
+                    binding.textViewSearchStatus.setVisibility(View.VISIBLE);
+                }
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<ApiResponse<List<SearchHitDto>>> call, @NonNull Throwable t) {
+                if (binding == null || call.isCanceled()) return;
+                binding.progressBarSearch.setVisibility(View.GONE);
+                binding.textViewSearchStatus.setText("Network error. Please check connection.");
+                binding.textViewSearchStatus.setVisibility(View.VISIBLE);
+                Log.e(TAG, "Network error searching plant names.", t);
+            }
+        });
     }
 
     /**
@@ -347,6 +318,10 @@ public class AddPlantFragment extends Fragment {
     @Override
     public void onDestroyView() {
         super.onDestroyView();
+        searchHandler.removeCallbacks(pendingSearch);
+        if (currentSearchCall != null) {
+            currentSearchCall.cancel();
+        }
         binding = null;
     }
 }
@@ -1,8 +1,18 @@
 package com.example.myapplication.utils;
 
 import android.content.Context;
+import android.content.SharedPreferences;
 import android.net.Uri;
+import android.util.Base64;
 import android.util.Log;
+import android.widget.ImageView;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.load.model.LazyHeaders;
+import com.example.myapplication.R;
+import com.example.myapplication.network.ApiClient;
+import com.example.myapplication.ui.myplants.share.Plant;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -14,6 +24,12 @@ import java.io.InputStream;
 public class ImageUtils {
     
     private static final String TAG = "ImageUtils";
+
+    /** Rendition requested for list cards (longer side in px) */
+    public static final int CARD_IMAGE_SIZE = 256;
+
+    /** Rendition requested for detail screens (longer side in px) */
+    public static final int DETAIL_IMAGE_SIZE = 1024;
     
     /**
      * Converts an image URI to a Base64 encoded string.
@@ -57,4 +73,60 @@ public class ImageUtils {
             return null;
         }
     }
+
+    /**
+     * Loads a plant photo into an ImageView.
+     *
+     * Uses the inline Base64 image when the plant carries one (wiki plants, single plant
+     * details). Plant list endpoints no longer include image bytes, so user plants without
+     * one are loaded from GET /api/plants/{id}/image with the stored JWT.
+     *
+     * @param target The ImageView to load into
+     * @param plant The plant whose image should be shown
+     * @param size Rendition to request from the server (longer side in px), e.g. CARD_IMAGE_SIZE
+     */
+    public static void loadPlantImage(ImageView target, Plant plant, int size) {
+        Context context = target.getContext();
+        String base64Image = plant.getImageUrl();
+        if (base64Image != null && !base64Image.isEmpty()) {
+            try {
+                byte[] imageBytes = Base64.decode(base64Image, Base64.DEFAULT);
+                Glide.with(context)
+                        .load(imageBytes)
+                        .placeholder(R.drawable.plantbulb_foreground)
+                        .error(R.drawable.plantbulb_foreground)
+                        .into(target);
+                return;
+            } catch (IllegalArgumentException e) {
+                Log.e(TAG, "Failed to decode Base64 string for plant: " + plant.getName(), e);
+            }
+        }
+
+        // Wiki plants have no owner and no server-side photo
+        if (plant.getUserId() <= 0 || plant.getPlantId() <= 0) {
+            Glide.with(context)
+                    .load(R.drawable.plantbulb_foreground)
+                    .into(target);
+            return;
+        }
+
+        Glide.with(context)
+                .load(plantImageUrl(context, plant.getPlantId(), size))
+                .placeholder(R.drawable.plantbulb_foreground)
+                .error(R.drawable.plantbulb_foreground)
+                .into(target);
+    }
+
+    /**
+     * Builds the authenticated Glide URL for GET /api/plants/{id}/image?size=N.
+     */
+    private static GlideUrl plantImageUrl(Context context, int plantId, int size) {
+        SharedPreferences sp = context.getApplicationContext().getSharedPreferences("auth_prefs", Context.MODE_PRIVATE);
+        String token = sp.getString("jwt_token", "");
+        LazyHeaders.Builder headers = new LazyHeaders.Builder();
+        if (token != null && !token.isEmpty()) {
+            headers.addHeader("Authorization", token);
+        }
+        return new GlideUrl(ApiClient.BASE_URL + "/api/plants/" + plantId + "/image?size=" + size, headers.build());
+    }
 }
@@ -0,0 +1,13 @@
+-- Composite lat/lon indexes for the bounding-box prefilter in
+-- PlantMapper.selectNearBy / GardenMapper.selectNearBy.
+-- CONCURRENTLY cannot run inside a transaction block: run this file with
+--   psql "$DATABASE_URL" -f db/migration/001_nearby_coordinate_indexes.sql
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_plant_lat_lon
+    ON plant (latitude, longitude);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_garden_lat_lon
+    ON garden (latitude, longitude);
+
+ANALYZE plant;
+ANALYZE garden;
@@ -0,0 +1,11 @@
+-- Downscaled JPEG copies of plant photos, written in the background after
+-- PlantServiceImpl.addPlant and served by GET /api/plants/{id}/image?size=N.
+-- size is the longer side in pixels (see plant.image.rendition-sizes).
+
+CREATE TABLE IF NOT EXISTS plant_image_rendition (
+    plant_id    BIGINT       NOT NULL REFERENCES plant (plant_id) ON DELETE CASCADE,
+    size        INTEGER      NOT NULL,
+    image       BYTEA        NOT NULL,
+    created_at  TIMESTAMP    NOT NULL DEFAULT now(),
+    PRIMARY KEY (plant_id, size)
+);
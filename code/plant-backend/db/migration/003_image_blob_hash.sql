@@ -0,0 +1,11 @@
+-- Images move out of the plant / users rows into the content-addressed BlobStore
+-- (plant.storage.*). The rows keep the hex SHA-256 key of their image.
+-- Existing inline bytes are moved by starting the backend once with
+-- plant.storage.migrate-inline=true, after which run
+--   VACUUM FULL plant;
+--   VACUUM FULL users;
+-- so the freed space is returned and the plant table fits in shared buffers again.
+
+ALTER TABLE plant ADD COLUMN IF NOT EXISTS image_hash CHAR(64);
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS avatar_hash CHAR(64);
@@ -0,0 +1,12 @@
+-- One like per (user, plant), needed by the ON CONFLICT in UserPlantLikeMapper.insertIgnore.
+-- Duplicates left by the old check-then-insert are removed first.
+-- CONCURRENTLY cannot run inside a transaction block: run this file with psql -f.
+
+DELETE FROM user_plant_like a
+    USING user_plant_like b
+WHERE a.user_id = b.user_id
+  AND a.plant_id = b.plant_id
+  AND a.id > b.id;
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uk_user_plant_like
+    ON user_plant_like (user_id, plant_id);
@@ -0,0 +1,11 @@
+-- Denormalised like counter, kept current by the statements in UserPlantLikeMapper.xml
+-- (the like rows and the counter change in the same statement).
+
+ALTER TABLE plant ADD COLUMN IF NOT EXISTS like_count INTEGER NOT NULL DEFAULT 0;
+
+UPDATE plant p
+SET like_count = c.cnt
+FROM (SELECT plant_id, count(*) AS cnt
+      FROM user_plant_like
+      GROUP BY plant_id) c
+WHERE c.plant_id = p.plant_id;
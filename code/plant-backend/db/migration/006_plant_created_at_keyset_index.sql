@@ -0,0 +1,16 @@
+-- Indexes for the keyset pagination in PlantServiceImpl.seekPlants:
+-- ORDER BY created_at DESC, plant_id DESC with the seek predicate (created_at, plant_id) < (?, ?),
+-- optionally filtered by user_id. Each page is a range scan from the cursor, deep pages cost the same as page one.
+-- CONCURRENTLY cannot run inside a transaction block: run this file with psql -f.
+
+-- a NULL created_at compares as unknown in the seek predicate and the row would be skipped by every cursor
+UPDATE plant SET created_at = now() WHERE created_at IS NULL;
+ALTER TABLE plant
+    ALTER COLUMN created_at SET DEFAULT now(),
+    ALTER COLUMN created_at SET NOT NULL;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_plant_created_at_id
+    ON plant (created_at DESC, plant_id DESC);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_plant_user_created_at_id
+    ON plant (user_id, created_at DESC, plant_id DESC);
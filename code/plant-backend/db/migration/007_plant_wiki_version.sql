@@ -0,0 +1,33 @@
+-- Change version for plant_wiki, used by the in-memory wiki snapshot (WikiSnapshotCache).
+-- Every insert / update stamps the row with the next value of plant_wiki_version_seq and every delete
+-- advances the sequence, so its last_value changes whenever the table does.
+
+CREATE SEQUENCE IF NOT EXISTS plant_wiki_version_seq;
+
+ALTER TABLE plant_wiki ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT nextval('plant_wiki_version_seq');
+
+CREATE OR REPLACE FUNCTION plant_wiki_stamp_version() RETURNS trigger AS $$
+BEGIN
+    NEW.version := nextval('plant_wiki_version_seq');
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION plant_wiki_bump_version() RETURNS trigger AS $$
+BEGIN
+    PERFORM nextval('plant_wiki_version_seq');
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS plant_wiki_version_update ON plant_wiki;
+CREATE TRIGGER plant_wiki_version_update
+    BEFORE UPDATE ON plant_wiki
+    FOR EACH ROW EXECUTE FUNCTION plant_wiki_stamp_version();
+
+DROP TRIGGER IF EXISTS plant_wiki_version_delete ON plant_wiki;
+CREATE TRIGGER plant_wiki_version_delete
+    AFTER DELETE OR TRUNCATE ON plant_wiki
+    FOR EACH STATEMENT EXECUTE FUNCTION plant_wiki_bump_version();
+
+CREATE INDEX IF NOT EXISTS idx_plant_wiki_version ON plant_wiki (version);
@@ -0,0 +1,4 @@
+-- Per-user token version, carried in the "ver" claim of the JWT. Bumping it (password change)
+-- makes every token issued before unusable, see UserPrincipalCache.
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_version INTEGER NOT NULL DEFAULT 0;
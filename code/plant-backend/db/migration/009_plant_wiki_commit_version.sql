@@ -0,0 +1,38 @@
+-- Replaces the plant_wiki_version_seq stamping from 007. Sequence values are handed out at nextval, not at
+-- commit, so a snapshot could see version V+1 committed while V was still open and a delta request
+-- "since V+1" would then never return the row stamped V.
+-- The counter row is updated in the writer's transaction and stays locked until it commits, so wiki writes
+-- are serialized and versions become visible in commit order: once the counter reads V, every row stamped
+-- with a version <= V is committed and a writer still open will get a version > V.
+
+CREATE TABLE IF NOT EXISTS plant_wiki_version (
+    id      SMALLINT PRIMARY KEY CHECK (id = 1),
+    version BIGINT   NOT NULL
+);
+
+-- continue from the sequence so the versions clients already hold stay comparable
+INSERT INTO plant_wiki_version (id, version)
+SELECT 1, greatest(last_value, (SELECT coalesce(max(version), 0) FROM plant_wiki))
+FROM plant_wiki_version_seq
+ON CONFLICT (id) DO NOTHING;
+
+ALTER TABLE plant_wiki ALTER COLUMN version SET DEFAULT 0;
+
+CREATE OR REPLACE FUNCTION plant_wiki_stamp_version() RETURNS trigger AS $$
+BEGIN
+    UPDATE plant_wiki_version SET version = version + 1 WHERE id = 1 RETURNING version INTO NEW.version;
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION plant_wiki_bump_version() RETURNS trigger AS $$
+BEGIN
+    UPDATE plant_wiki_version SET version = version + 1 WHERE id = 1;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS plant_wiki_version_update ON plant_wiki;
+CREATE TRIGGER plant_wiki_version_update
+    BEFORE INSERT OR UPDATE ON plant_wiki
+    FOR EACH ROW EXECUTE FUNCTION plant_wiki_stamp_version();
@@ -3,9 +3,11 @@ package org.unimelb;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @MapperScan("org.unimelb.*.mapper")
+@EnableScheduling
 public class PlantApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,244 @@
+package org.unimelb.ai.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+/**
+ * The one HTTP client used for the OpenAI API.
+ * Connections are pooled and kept alive by java.net.http.HttpClient, and calls return a CompletableFuture
+ * so no request thread waits for the model.
+ */
+@Component
+public class OpenAIClient {
+
+    private final HttpClient httpClient;
+
+    private final ObjectMapper objectMapper;
+
+    private final String baseUrl;
+
+    private final String apiKey;
+
+    private final Duration requestTimeout;
+
+    public OpenAIClient(@Value("${openai.base-url:https://api.openai.com/v1}") String baseUrl,
+                        @Value("${openai.api-key}") String apiKey,
+                        @Value("${openai.connect-timeout-seconds:10}") long connectTimeoutSeconds,
+                        @Value("${openai.request-timeout-seconds:120}") long requestTimeoutSeconds,
+                        @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                        ObjectMapper objectMapper) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.apiKey = apiKey;
+        this.requestTimeout = Duration.ofSeconds(requestTimeoutSeconds);
+        this.objectMapper = objectMapper;
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(connectTimeoutSeconds));
+        if (virtualThreads) {
+            // response handling and the thenApply stages run on virtual threads instead of the common pool
+            builder.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        this.httpClient = builder.build();
+    }
+
+    /**
+     * POST /chat/completions, completes with the content of the first choice.
+     */
+    public CompletableFuture<String> chat(String model, List<Map<String, Object>> messages, int maxTokens, double temperature) {
+        Map<String, Object> body = Map.of(
+                "model", model,
+                "messages", messages,
+                "max_tokens", maxTokens,
+                "temperature", temperature
+        );
+        return post("/chat/completions", body).thenApply(json -> {
+            JsonNode content = json.path("choices").path(0).path("message").path("content");
+            if (!content.isTextual()) {
+                throw new OpenAIException(200, "no message in chat completion");
+            }
+            return content.asText();
+        });
+    }
+
+    /**
+     * POST /responses, completes with the text of the first output.
+     */
+    public CompletableFuture<String> respond(String model, String input, double temperature) {
+        Map<String, Object> body = Map.of(
+                "model", model,
+                "input", input,
+                "temperature", temperature
+        );
+        return post("/responses", body).thenApply(json -> {
+            JsonNode text = json.path("output").path(0).path("content").path(0).path("text");
+            if (!text.isTextual()) {
+                throw new OpenAIException(200, "no text in response output");
+            }
+            return text.asText();
+        });
+    }
+
+    /**
+     * POST /chat/completions with stream=true. onToken receives each content delta as it arrives,
+     * on an HttpClient thread; the future completes with the whole answer.
+     * An exception thrown by onToken (e.g. the caller went away) cancels the upstream request.
+     */
+    public CompletableFuture<String> chatStream(String model, List<Map<String, Object>> messages, int maxTokens,
+                                                double temperature, Consumer<String> onToken) {
+        Map<String, Object> body = Map.of(
+                "model", model,
+                "messages", messages,
+                "max_tokens", maxTokens,
+                "temperature", temperature,
+                "stream", true
+        );
+        HttpRequest request;
+        try {
+            request = request("/chat/completions", body);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        ChatStreamSubscriber subscriber = new ChatStreamSubscriber(onToken);
+        CompletableFuture<HttpResponse<String>> response = httpClient.sendAsync(request, responseInfo ->
+                responseInfo.statusCode() / 100 == 2
+                        ? HttpResponse.BodySubscribers.fromLineSubscriber(subscriber, ChatStreamSubscriber::answer,
+                        StandardCharsets.UTF_8, null)
+                        : HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8),
+                        error -> {
+                            throw new OpenAIException(responseInfo.statusCode(),
+                                    "OpenAI API returned " + responseInfo.statusCode() + ": " + abbreviate(error));
+                        }));
+
+        CompletableFuture<String> answer = new CompletableFuture<>();
+        response.whenComplete((r, e) -> {
+            if (subscriber.failure != null) {
+                answer.completeExceptionally(subscriber.failure);
+            } else if (e != null) {
+                answer.completeExceptionally(e);
+            } else {
+                answer.complete(r.body());
+            }
+        });
+        // stop the generation when onToken fails or the caller cancels
+        subscriber.failed.thenRun(() -> response.cancel(true));
+        answer.whenComplete((r, e) -> {
+            if (answer.isCancelled()) {
+                response.cancel(true);
+            }
+        });
+        return answer;
+    }
+
+    private HttpRequest request(String path, Map<String, Object> body) throws JsonProcessingException {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(requestTimeout)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+    }
+
+    private CompletableFuture<JsonNode> post(String path, Map<String, Object> body) {
+        HttpRequest request;
+        try {
+            request = request(path, body);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> {
+                    if (response.statusCode() / 100 != 2) {
+                        throw new OpenAIException(response.statusCode(),
+                                "OpenAI API returned " + response.statusCode() + ": " + abbreviate(new String(response.body(), StandardCharsets.UTF_8)));
+                    }
+                    try {
+                        return objectMapper.readTree(response.body());
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                });
+    }
+
+    /**
+     * Reads the server-sent events of a streamed chat completion line by line:
+     * "data: {chunk}" lines carry choices[0].delta.content, "data: [DONE]" ends the stream.
+     */
+    private class ChatStreamSubscriber implements Flow.Subscriber<String> {
+
+        private final Consumer<String> onToken;
+
+        private final StringBuilder answer = new StringBuilder();
+
+        private final CompletableFuture<Void> failed = new CompletableFuture<>();
+
+        private volatile RuntimeException failure;
+
+        ChatStreamSubscriber(Consumer<String> onToken) {
+            this.onToken = onToken;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (failure != null || !line.startsWith("data:")) {
+                return;
+            }
+            String data = line.substring(5).trim();
+            if (data.isEmpty() || "[DONE]".equals(data)) {
+                return;
+            }
+            try {
+                JsonNode content = objectMapper.readTree(data).path("choices").path(0).path("delta").path("content");
+                if (content.isTextual() && !content.asText().isEmpty()) {
+                    answer.append(content.asText());
+                    onToken.accept(content.asText());
+                }
+            } catch (IOException | RuntimeException e) {
+                failure = e instanceof RuntimeException re ? re : new CompletionException(e);
+                failed.complete(null);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        String answer() {
+            if (failure != null) {
+                throw failure;
+            }
+            return answer.toString();
+        }
+    }
+
+    private static String abbreviate(String text) {
+        return text.length() <= 300 ? text : text.substring(0, 300) + "...";
+    }
+}
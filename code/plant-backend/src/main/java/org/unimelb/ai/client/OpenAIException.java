@@ -0,0 +1,18 @@
+package org.unimelb.ai.client;
+
+/**
+ * Non-2xx answer from the OpenAI API, or a body without the expected text.
+ */
+public class OpenAIException extends RuntimeException {
+
+    private final int status;
+
+    public OpenAIException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
@@ -1,12 +1,14 @@
 package org.unimelb.ai.controller;
 
-
+import lombok.extern.slf4j.Slf4j;
 import org.unimelb.ai.service.OpenAIService;
 import org.springframework.web.bind.annotation.*;
 import org.unimelb.ai.vo.BaseResponse;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+@Slf4j
 @RestController
 @RequestMapping("/api/ai_bot")
 public class OpenAIController {
@@ -18,12 +20,10 @@ public class OpenAIController {
     }
 
     @GetMapping("/ask")
-    public BaseResponse<Map<String, String>> ask(@RequestParam String q) {
-        System.out.println("===== AI Reply =====");
-        String answer = openAIService.ask(q);
-        System.out.println(answer);
-        System.out.println("====================");
-        return new BaseResponse<>(200, "ok", Map.of("reply", answer));
+    public CompletableFuture<BaseResponse<Map<String, String>>> ask(@RequestParam String q) {
+        return openAIService.ask(q).thenApply(answer -> {
+            log.debug("AI reply: {}", answer);
+            return new BaseResponse<>(200, "ok", Map.of("reply", answer));
+        });
     }
 }
-
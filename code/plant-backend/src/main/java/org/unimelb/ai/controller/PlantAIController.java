@@ -1,14 +1,27 @@
 package org.unimelb.ai.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.unimelb.ai.service.PlantAIService;
 import org.unimelb.common.vo.Result;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
+/**
+ * The OpenAI calls run on OpenAIClient's HttpClient, the servlet thread is released
+ * while the model is answering and the result is written when the future completes.
+ */
 @RestController
 @RequestMapping("/api/plant-ai")
 public class PlantAIController {
@@ -16,26 +29,29 @@ public class PlantAIController {
     @Autowired
     private PlantAIService plantAIService;
 
+    @Value("${openai.request-timeout-seconds:120}")
+    private long requestTimeoutSeconds;
+
     /**
      * 植物识别
      * POST /api/plant-ai/identify
      */
     @PostMapping("/identify")
-    public Result<Map<String, String>> identifyPlant(
+    public CompletableFuture<Result<Map<String, String>>> identifyPlant(
             @RequestParam("image") MultipartFile imageFile,
             @RequestParam(value = "location", required = false) String location) {
-        
-        try {
-            String result = plantAIService.identifyPlant(imageFile, location);
-            Map<String, String> response = new HashMap<>();
-            response.put("identification", result);
-            response.put("imageName", imageFile.getOriginalFilename());
-            response.put("location", location != null ? location : "未知");
-            
-            return Result.success(response);
-        } catch (Exception e) {
-            return Result.fail(500, "植物识别失败: " + e.getMessage());
-        }
+
+        String imageName = imageFile.getOriginalFilename();
+        return plantAIService.identifyPlant(imageFile, location)
+                .thenApply(result -> {
+                    Map<String, String> response = new HashMap<>();
+                    response.put("identification", result);
+                    response.put("imageName", imageName);
+                    response.put("location", location != null ? location : "未知");
+
+                    return Result.success(response);
+                })
+                .exceptionally(e -> Result.fail(500, "植物识别失败: " + e.getMessage()));
     }
 
     /**
@@ -43,20 +59,19 @@ public class PlantAIController {
      * POST /api/plant-ai/recommendations
      */
     @PostMapping("/recommendations")
-    public Result<Map<String, String>> getPlantRecommendations(
+    public CompletableFuture<Result<Map<String, String>>> getPlantRecommendations(
             @RequestParam("location") String location,
             @RequestBody(required = false) Map<String, Object> sensorData) {
-        
-        try {
-            String recommendations = plantAIService.getPlantRecommendations(location, sensorData);
-            Map<String, String> response = new HashMap<>();
-            response.put("recommendations", recommendations);
-            response.put("location", location);
-            
-            return Result.success(response);
-        } catch (Exception e) {
-            return Result.fail(500, "获取种植建议失败: " + e.getMessage());
-        }
+
+        return plantAIService.getPlantRecommendations(location, sensorData)
+                .thenApply(recommendations -> {
+                    Map<String, String> response = new HashMap<>();
+                    response.put("recommendations", recommendations);
+                    response.put("location", location);
+
+                    return Result.success(response);
+                })
+                .exceptionally(e -> Result.fail(500, "获取种植建议失败: " + e.getMessage()));
     }
 
     /**
@@ -64,20 +79,19 @@ public class PlantAIController {
      * POST /api/plant-ai/care-advice
      */
     @PostMapping("/care-advice")
-    public Result<Map<String, String>> getPlantCareAdvice(
+    public CompletableFuture<Result<Map<String, String>>> getPlantCareAdvice(
             @RequestParam("plantName") String plantName,
             @RequestBody(required = false) Map<String, Object> currentConditions) {
-        
-        try {
-            String advice = plantAIService.getPlantCareAdvice(plantName, currentConditions);
-            Map<String, String> response = new HashMap<>();
-            response.put("careAdvice", advice);
-            response.put("plantName", plantName);
-            
-            return Result.success(response);
-        } catch (Exception e) {
-            return Result.fail(500, "获取养护建议失败: " + e.getMessage());
-        }
+
+        return plantAIService.getPlantCareAdvice(plantName, currentConditions)
+                .thenApply(advice -> {
+                    Map<String, String> response = new HashMap<>();
+                    response.put("careAdvice", advice);
+                    response.put("plantName", plantName);
+
+                    return Result.success(response);
+                })
+                .exceptionally(e -> Result.fail(500, "获取养护建议失败: " + e.getMessage()));
     }
 
     /**
@@ -85,16 +99,58 @@ public class PlantAIController {
      * GET /api/plant-ai/ask
      */
     @GetMapping("/ask")
-    public Result<Map<String, String>> askPlantQuestion(@RequestParam("question") String question) {
+    public CompletableFuture<Result<Map<String, String>>> askPlantQuestion(@RequestParam("question") String question) {
+        return plantAIService.askPlantQuestion(question)
+                .thenApply(answer -> {
+                    Map<String, String> response = new HashMap<>();
+                    response.put("question", question);
+                    response.put("answer", answer);
+
+                    return Result.success(response);
+                })
+                .exceptionally(e -> Result.fail(500, "AI问答失败: " + e.getMessage()));
+    }
+
+    /**
+     * 植物相关问答（流式）
+     * GET /api/plant-ai/ask/stream
+     * Server-sent events: "token" {text} for each piece of the answer as the model writes it,
+     * then "done" {answer} with the whole answer, or "error" {message}.
+     */
+    @GetMapping(value = "/ask/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> askPlantQuestionStream(@RequestParam("question") String question) {
+        SseEmitter emitter = new SseEmitter((requestTimeoutSeconds + 30) * 1000);
+        CompletableFuture<String> answer = plantAIService.askPlantQuestionStream(question,
+                token -> send(emitter, "token", Map.of("text", token)));
+        answer.whenComplete((result, e) -> {
+            try {
+                if (e == null) {
+                    send(emitter, "done", Map.of("answer", result));
+                } else {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    send(emitter, "error", Map.of("message", "AI问答失败: " + cause.getMessage()));
+                }
+                emitter.complete();
+            } catch (UncheckedIOException ignored) {
+                // client already gone
+            }
+        });
+        // client disconnected or took too long: stop the upstream generation
+        emitter.onTimeout(() -> answer.cancel(true));
+        emitter.onError(e -> answer.cancel(true));
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                // tell nginx not to buffer the events
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
+    }
+
+    private static void send(SseEmitter emitter, String name, Object data) {
         try {
-            String answer = plantAIService.askPlantQuestion(question);
-            Map<String, String> response = new HashMap<>();
-            response.put("question", question);
-            response.put("answer", answer);
-            
-            return Result.success(response);
-        } catch (Exception e) {
-            return Result.fail(500, "AI问答失败: " + e.getMessage());
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
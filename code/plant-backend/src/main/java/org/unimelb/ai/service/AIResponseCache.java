@@ -0,0 +1,253 @@
+package org.unimelb.ai.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.unimelb.common.cache.LruTtlCache;
+import org.unimelb.common.cache.SingleFlight;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Answers of the plant AI text endpoints, keyed by the normalized question / plant name / location
+ * and the sensor readings rounded into buckets, so near-identical requests share one model call.
+ * Only successful answers are stored. Entries are saved to plant.ai-cache.file (when set) and loaded on startup.
+ * Besides cache.gets{cache=ai-response}, ai.cache.saved{cache=ai-response} records the model latency each hit avoided.
+ */
+@Slf4j
+@Component
+public class AIResponseCache {
+
+    private static final Pattern NUMBER = Pattern.compile("-?\\d+(\\.\\d+)?");
+
+    /** words that do not change what is asked */
+    private static final Set<String> FILLER = Set.of("please", "pls", "thanks", "thank", "hi", "hello", "hey", "a", "an", "the");
+
+    private final LruTtlCache<String, CachedAnswer> cache;
+
+    private final SingleFlight<String, String> flights;
+
+    private final Timer saved;
+
+    private final ObjectMapper objectMapper;
+
+    private final Path file;
+
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    public AIResponseCache(@Value("${plant.ai-cache.max-size:2000}") int maxSize,
+                           @Value("${plant.ai-cache.ttl-seconds:86400}") long ttlSeconds,
+                           @Value("${plant.ai-cache.file:}") String file,
+                           @Value("${openai.request-timeout-seconds:120}") long flightTimeoutSeconds,
+                           MeterRegistry meterRegistry,
+                           ObjectMapper objectMapper) {
+        this.cache = new LruTtlCache<>(maxSize, ttlSeconds * 1000);
+        this.cache.bindTo(meterRegistry, "ai-response");
+        this.flights = new SingleFlight<>(flightTimeoutSeconds * 1000);
+        this.flights.bindTo(meterRegistry, "ai-response");
+        this.saved = Timer.builder("ai.cache.saved")
+                .description("model latency avoided by AI response cache hits")
+                .tag("cache", "ai-response")
+                .register(meterRegistry);
+        this.objectMapper = objectMapper;
+        this.file = StringUtils.hasText(file) ? Paths.get(file) : null;
+    }
+
+    public static String askKey(String question) {
+        return "ask|" + normalize(question);
+    }
+
+    public static String careKey(String plantName, Map<String, Object> conditions) {
+        return "care|" + normalize(plantName) + "|" + buckets(conditions);
+    }
+
+    public static String recommendationKey(String location, Map<String, Object> sensorData) {
+        return "recommend|" + normalize(location) + "|" + buckets(sensorData);
+    }
+
+    /**
+     * Cached answer, or null. A hit is recorded in ai.cache.saved.
+     */
+    public String get(String key) {
+        CachedAnswer cached = cache.get(key);
+        if (cached == null) {
+            return null;
+        }
+        saved.record(cached.latencyMillis(), TimeUnit.MILLISECONDS);
+        return cached.answer();
+    }
+
+    public void put(String key, String answer, long latencyMillis) {
+        if (answer == null || answer.isBlank()) {
+            return;
+        }
+        cache.put(key, new CachedAnswer(answer, latencyMillis));
+        dirty.set(true);
+    }
+
+    /**
+     * Cached answer, or the loader's answer which is stored when it succeeds.
+     * Concurrent calls for the same key run the loader once.
+     */
+    public CompletableFuture<String> getOrLoad(String key, Supplier<CompletableFuture<String>> loader) {
+        String cached = get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        // identical requests arriving while the first one waits for the model share its call
+        return flights.run(key, () -> {
+            long start = System.nanoTime();
+            CompletableFuture<String> model = loader.get();
+            CompletableFuture<String> stored = model.thenApply(answer -> {
+                put(key, answer, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                return answer;
+            });
+            // the flight cancels stored when it times out or nobody waits any more, pass that on to the model call
+            stored.whenComplete((answer, e) -> {
+                if (stored.isCancelled()) {
+                    model.cancel(true);
+                }
+            });
+            return stored;
+        });
+    }
+
+    @PostConstruct
+    public void load() {
+        if (file == null || !Files.exists(file)) {
+            return;
+        }
+        try {
+            List<StoredAnswer> stored = objectMapper.readValue(file.toFile(), new TypeReference<>() {
+            });
+            long now = System.currentTimeMillis();
+            for (StoredAnswer s : stored) {
+                cache.put(s.key(), new CachedAnswer(s.answer(), s.latencyMillis()), s.expiresAt() - now);
+            }
+            log.info("loaded {} cached AI answers from {}", cache.size(), file);
+        } catch (IOException e) {
+            // start empty, the file is rewritten on the next save
+            log.warn("failed to load AI answer cache from {}: {}", file, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${plant.ai-cache.save-seconds:300}", initialDelayString = "${plant.ai-cache.save-seconds:300}",
+            timeUnit = TimeUnit.SECONDS)
+    public void save() {
+        if (file == null || !dirty.getAndSet(false)) {
+            return;
+        }
+        List<StoredAnswer> stored = new ArrayList<>();
+        cache.forEach((key, value, expiresAt) ->
+                stored.add(new StoredAnswer(key, value.answer(), value.latencyMillis(), expiresAt)));
+        try {
+            Path dir = file.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+            try {
+                objectMapper.writeValue(tmp.toFile(), stored);
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            dirty.set(true);
+            log.warn("failed to save AI answer cache to {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Lower case, accents and punctuation removed, filler words dropped.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder();
+        for (String word : folded.split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty() && !FILLER.contains(word)) {
+                if (!sb.isEmpty()) {
+                    sb.append(' ');
+                }
+                sb.append(word);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Readings sorted by name, numbers rounded to a bucket that does not change the advice
+     * (2 degrees, 10 % humidity / moisture, 0.5 pH, two significant digits otherwise).
+     */
+    static String buckets(Map<String, Object> readings) {
+        if (readings == null || readings.isEmpty()) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        new TreeMap<>(readings).forEach((name, value) -> {
+            String key = normalize(name);
+            String text = value == null ? "" : value.toString();
+            Matcher m = NUMBER.matcher(text);
+            sb.append(key).append('=');
+            if (m.find()) {
+                sb.append(bucket(key, Double.parseDouble(m.group())));
+            } else {
+                sb.append(normalize(text));
+            }
+            sb.append(';');
+        });
+        return sb.toString();
+    }
+
+    private static String bucket(String name, double value) {
+        double width;
+        if (name.contains("temp")) {
+            width = 2;
+        } else if (name.contains("humid") || name.contains("moisture")) {
+            width = 10;
+        } else if (name.matches("ph( ?level)?")) {
+            width = 0.5;
+        } else {
+            if (value == 0) {
+                return "0";
+            }
+            width = Math.pow(10, Math.floor(Math.log10(Math.abs(value))) - 1);
+        }
+        return String.valueOf(Math.floor(value / width) * width);
+    }
+
+    private record CachedAnswer(String answer, long latencyMillis) {
+    }
+
+    private record StoredAnswer(String key, String answer, long latencyMillis, long expiresAt) {
+    }
+}
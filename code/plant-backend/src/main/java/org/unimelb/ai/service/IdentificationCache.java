@@ -0,0 +1,182 @@
+package org.unimelb.ai.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.unimelb.common.cache.LruTtlCache;
+import org.unimelb.common.cache.SingleFlight;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Recent /api/plant-ai/identify answers keyed by the dHash of the photo (ImageUtil.dHash) and the location.
+ * A new photo whose hash is within plant.ai-identify-cache.max-distance bits of a cached one gets that answer.
+ * The hashes are indexed by maxDistance + 1 bit bands: two hashes at most maxDistance bits apart agree on at
+ * least one band, so a lookup only compares the entries sharing a band instead of scanning the cache under its lock.
+ * Hits are counted in cache.gets{cache=ai-identify} and their avoided model latency in ai.cache.saved{cache=ai-identify}.
+ */
+@Component
+public class IdentificationCache {
+
+    private final LruTtlCache<Key, CachedAnswer> cache;
+
+    private final SingleFlight<Key, String> flights;
+
+    private final int maxDistance;
+
+    private final Timer saved;
+
+    private final int bands;
+
+    private final int maxSize;
+
+    /** (location, band, band bits) -> cached keys, entries evicted from the cache are dropped by get() or reindex() */
+    private volatile Map<Band, Set<Key>> index = new ConcurrentHashMap<>();
+
+    /** keys in the index, reindex() when it is well above the cache size */
+    private int indexed;
+
+    public IdentificationCache(@Value("${plant.ai-identify-cache.max-size:2000}") int maxSize,
+                               @Value("${plant.ai-identify-cache.ttl-seconds:86400}") long ttlSeconds,
+                               @Value("${plant.ai-identify-cache.max-distance:6}") int maxDistance,
+                               @Value("${openai.request-timeout-seconds:120}") long flightTimeoutSeconds,
+                               MeterRegistry meterRegistry) {
+        this.cache = new LruTtlCache<>(maxSize, ttlSeconds * 1000);
+        this.cache.bindTo(meterRegistry, "ai-identify");
+        this.flights = new SingleFlight<>(flightTimeoutSeconds * 1000);
+        this.flights.bindTo(meterRegistry, "ai-identify");
+        this.maxDistance = maxDistance;
+        this.bands = Math.min(maxDistance + 1, Long.SIZE);
+        this.maxSize = maxSize;
+        this.saved = Timer.builder("ai.cache.saved")
+                .description("model latency avoided by AI response cache hits")
+                .tag("cache", "ai-identify")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Answer of the closest cached photo taken at the same location, or null when none is close enough.
+     */
+    public String get(long imageHash, String location) {
+        String normalizedLocation = AIResponseCache.normalize(location);
+        Map<Band, Set<Key>> current = index;
+        Set<Key> candidates = new HashSet<>();
+        for (int b = 0; b < bands; b++) {
+            Set<Key> keys = current.get(band(normalizedLocation, b, imageHash));
+            if (keys == null) {
+                continue;
+            }
+            for (Key key : keys) {
+                if (Long.bitCount(key.imageHash() ^ imageHash) <= maxDistance) {
+                    candidates.add(key);
+                }
+            }
+        }
+        List<Key> byDistance = new ArrayList<>(candidates);
+        byDistance.sort(Comparator.comparingInt(key -> Long.bitCount(key.imageHash() ^ imageHash)));
+        // the closest one may have been evicted while a farther one is still cached; one hit / miss per lookup
+        CachedAnswer cached = cache.getFirst(byDistance, evicted -> removeFromIndex(current, evicted));
+        if (cached == null) {
+            return null;
+        }
+        saved.record(cached.latencyMillis(), TimeUnit.MILLISECONDS);
+        return cached.answer();
+    }
+
+    public void put(long imageHash, String location, String answer, long latencyMillis) {
+        if (answer == null || answer.isBlank()) {
+            return;
+        }
+        Key key = new Key(imageHash, AIResponseCache.normalize(location));
+        cache.put(key, new CachedAnswer(answer, latencyMillis));
+        synchronized (this) {
+            if (addToIndex(index, key) && ++indexed > 2 * maxSize) {
+                reindex();
+            }
+        }
+    }
+
+    /**
+     * Rebuild the index from the cache, dropping the keys it evicted or expired since.
+     */
+    private void reindex() {
+        Map<Band, Set<Key>> next = new ConcurrentHashMap<>();
+        int[] count = {0};
+        cache.forEach((key, value, expiresAt) -> {
+            addToIndex(next, key);
+            count[0]++;
+        });
+        index = next;
+        indexed = count[0];
+    }
+
+    private boolean addToIndex(Map<Band, Set<Key>> target, Key key) {
+        boolean added = false;
+        for (int b = 0; b < bands; b++) {
+            added |= target.computeIfAbsent(band(key.location(), b, key.imageHash()), k -> ConcurrentHashMap.newKeySet())
+                    .add(key);
+        }
+        return added;
+    }
+
+    private void removeFromIndex(Map<Band, Set<Key>> target, Key key) {
+        for (int b = 0; b < bands; b++) {
+            Set<Key> keys = target.get(band(key.location(), b, key.imageHash()));
+            if (keys != null) {
+                keys.remove(key);
+            }
+        }
+    }
+
+    private Band band(String location, int b, long hash) {
+        int from = b * Long.SIZE / bands;
+        int to = (b + 1) * Long.SIZE / bands;
+        long mask = to - from == Long.SIZE ? -1L : (1L << (to - from)) - 1;
+        return new Band(location, b, (hash >>> from) & mask);
+    }
+
+    /**
+     * Cached answer for a similar photo, or the loader's answer which is stored when it succeeds.
+     */
+    public CompletableFuture<String> getOrLoad(long imageHash, String location, Supplier<CompletableFuture<String>> loader) {
+        String cached = get(imageHash, location);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        // the same photo uploaded again while the first upload waits for the model shares its call
+        return flights.run(new Key(imageHash, AIResponseCache.normalize(location)), () -> {
+            long start = System.nanoTime();
+            CompletableFuture<String> model = loader.get();
+            CompletableFuture<String> stored = model.thenApply(answer -> {
+                put(imageHash, location, answer, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                return answer;
+            });
+            // see AIResponseCache.getOrLoad
+            stored.whenComplete((answer, e) -> {
+                if (stored.isCancelled()) {
+                    model.cancel(true);
+                }
+            });
+            return stored;
+        });
+    }
+
+    private record Key(long imageHash, String location) {
+    }
+
+    private record Band(String location, int band, long bits) {
+    }
+
+    private record CachedAnswer(String answer, long latencyMillis) {
+    }
+}
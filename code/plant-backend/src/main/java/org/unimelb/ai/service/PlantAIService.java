@@ -1,128 +1,175 @@
 package org.unimelb.ai.service;
 
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import org.unimelb.ai.client.OpenAIClient;
+import org.unimelb.common.utils.ImageUtil;
+
+import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
+@Slf4j
 @Service
 public class PlantAIService {
 
-    @Value("${openai.api-key}")
-    private String apiKey;
+    @Resource
+    private OpenAIClient openAIClient;
+
+    @Resource
+    private AIResponseCache aiResponseCache;
+
+    @Resource
+    private IdentificationCache identificationCache;
+
+    /** longer side of the photo sent to the vision model, larger photos are scaled down */
+    @Value("${plant.ai-vision.max-edge:1024}")
+    private int visionMaxEdge;
+
+    @Value("${plant.ai-vision.jpeg-quality:0.8}")
+    private float visionJpegQuality;
+
+    /** decodes and hashes uploaded photos, bounded so a burst of uploads is rejected instead of piling up */
+    private final ThreadPoolExecutor imageExecutor;
 
-    private static final String API_URL = "https://api.openai.com/v1/chat/completions";
+    public PlantAIService(@Value("${plant.ai-vision.decode-threads:2}") int decodeThreads,
+                          @Value("${plant.ai-vision.decode-queue-size:32}") int decodeQueueSize) {
+        this.imageExecutor = new ThreadPoolExecutor(decodeThreads, decodeThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(decodeQueueSize), new CustomizableThreadFactory("plant-ai-image-"));
+        this.imageExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        imageExecutor.shutdown();
+    }
 
     /**
      * Plant Identification - Identify plants from images
      */
-    public String identifyPlant(MultipartFile imageFile, String location) {
+    public CompletableFuture<String> identifyPlant(MultipartFile imageFile, String location) {
+        byte[] imageBytes;
         try {
-            // Convert image to base64 for OpenAI Vision API
-            String base64Image = convertImageToBase64(imageFile);
-            
-            String prompt = String.format(
-                "Please identify the plant species in this image. Location: %s." +
-                "Please provide: 1. Plant name (English and Chinese) 2. Family and genus 3. Basic characteristics 4. Growing environment requirements 5. Care tips",
-                location != null ? location : "Unknown location"
-            );
-            
-            return callOpenAIVision(prompt, base64Image, "You are a professional plant identification expert. Please accurately identify plants and provide detailed information.");
-            
-        } catch (Exception e) {
-            return "Error processing image: " + e.getMessage();
+            // read on the request thread, the multipart temp file is gone once the request returns
+            imageBytes = imageFile.getBytes();
+        } catch (IOException e) {
+            return CompletableFuture.completedFuture("Error processing image: " + e.getMessage());
         }
+        CompletableFuture<BufferedImage> decoded;
+        try {
+            // decoding a camera photo takes tens of ms of CPU, not done on the servlet thread
+            decoded = CompletableFuture.supplyAsync(() -> upright(imageBytes), imageExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture("Error processing image: too many images in progress");
+        }
+        // the same or a near-identical photo identified recently: answer from IdentificationCache
+        CompletableFuture<String> answer = decoded.thenCompose(image -> image == null
+                ? identifyPlant(imageBytes, location)
+                : identificationCache.getOrLoad(ImageUtil.dHash(image), location,
+                        () -> identifyPlant(prepareForVision(image, imageBytes), location)));
+        return answer.exceptionally(e -> {
+            if (cause(e) instanceof UncheckedIOException io) {
+                return "Error processing image: " + io.getCause().getMessage();
+            }
+            log.error("Vision API Error: {}", cause(e).getMessage());
+            return "AI vision service error: " + cause(e).getMessage();
+        });
     }
-    
+
     /**
-     * Convert MultipartFile to base64 string
+     * The photo as displayed (EXIF orientation applied), so a rotated copy hashes like the original.
+     * null when the format is not readable, the original bytes are sent as they are then.
      */
-    private String convertImageToBase64(MultipartFile imageFile) throws IOException {
-        byte[] imageBytes = imageFile.getBytes();
-        return java.util.Base64.getEncoder().encodeToString(imageBytes);
+    private static BufferedImage upright(byte[] imageBytes) {
+        try {
+            BufferedImage image = ImageUtil.read(imageBytes);
+            return image == null ? null : ImageUtil.applyOrientation(image, ImageUtil.exifOrientation(imageBytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Downscaled JPEG without EXIF (location, camera) of the upright photo for the vision request,
+     * a few hundred KB instead of the multi-MB camera original. Falls back to the original bytes.
+     */
+    private byte[] prepareForVision(BufferedImage upright, byte[] original) {
+        try {
+            byte[] jpeg = ImageUtil.toJpeg(ImageUtil.fit(upright, visionMaxEdge), visionJpegQuality);
+            log.debug("vision image {}x{} {} bytes -> {} bytes", upright.getWidth(), upright.getHeight(), original.length, jpeg.length);
+            return jpeg;
+        } catch (IOException | RuntimeException e) {
+            log.warn("failed to re-encode image for vision, sending original: {}", e.getMessage());
+            return original;
+        }
+    }
+
+    private CompletableFuture<String> identifyPlant(byte[] imageBytes, String location) {
+        // Convert image to base64 for OpenAI Vision API
+        String base64Image = Base64.getEncoder().encodeToString(imageBytes);
+
+        String prompt = String.format(
+            "Please identify the plant species in this image. Location: %s." +
+            "Please provide: 1. Plant name (English and Chinese) 2. Family and genus 3. Basic characteristics 4. Growing environment requirements 5. Care tips",
+            location != null ? location : "Unknown location"
+        );
+
+        return callOpenAIVision(prompt, base64Image, "You are a professional plant identification expert. Please accurately identify plants and provide detailed information.");
     }
     
     /**
      * Call OpenAI Vision API for image analysis
      */
-    private String callOpenAIVision(String prompt, String base64Image, String systemMessage) {
-        try {
-            RestTemplate restTemplate = new RestTemplate();
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.setBearerAuth(apiKey);
-
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("model", "gpt-4o");  // Updated to latest vision-capable model
-            requestBody.put("temperature", 0.7);
-            requestBody.put("max_tokens", 1000);
-
-            List<Map<String, Object>> messages = new ArrayList<>();
-            
-            Map<String, Object> systemMsg = new HashMap<>();
-            systemMsg.put("role", "system");
-            systemMsg.put("content", systemMessage);
-            messages.add(systemMsg);
-            
-            Map<String, Object> userMsg = new HashMap<>();
-            userMsg.put("role", "user");
-            
-            List<Map<String, Object>> content = new ArrayList<>();
-            
-            Map<String, Object> textContent = new HashMap<>();
-            textContent.put("type", "text");
-            textContent.put("text", prompt);
-            content.add(textContent);
-            
-            Map<String, Object> imageContent = new HashMap<>();
-            imageContent.put("type", "image_url");
-            Map<String, String> imageUrl = new HashMap<>();
-            imageUrl.put("url", "data:image/jpeg;base64," + base64Image);
-            imageContent.put("image_url", imageUrl);
-            content.add(imageContent);
-            
-            userMsg.put("content", content);
-            messages.add(userMsg);
-            
-            requestBody.put("messages", messages);
-
-            HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
-
-            ResponseEntity<Map> response = restTemplate.exchange(
-                    API_URL, HttpMethod.POST, request, Map.class
-            );
+    private CompletableFuture<String> callOpenAIVision(String prompt, String base64Image, String systemMessage) {
+        List<Map<String, Object>> messages = new ArrayList<>();
 
-            Map<String, Object> responseBody = response.getBody();
-            if (responseBody == null) {
-                return "Unable to get AI response, please try again later.";
-            }
+        Map<String, Object> systemMsg = new HashMap<>();
+        systemMsg.put("role", "system");
+        systemMsg.put("content", systemMessage);
+        messages.add(systemMsg);
 
-            List<Map<String, Object>> choices = (List<Map<String, Object>>) responseBody.get("choices");
-            if (choices != null && !choices.isEmpty()) {
-                Map<String, Object> message = (Map<String, Object>) choices.get(0).get("message");
-                return (String) message.get("content");
-            }
+        Map<String, Object> userMsg = new HashMap<>();
+        userMsg.put("role", "user");
 
-            return "AI response format error, please try again later.";
+        List<Map<String, Object>> content = new ArrayList<>();
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            System.err.println("Vision API Error: " + e.getMessage());
-            if (e.getCause() != null) {
-                System.err.println("Cause: " + e.getCause().getMessage());
-            }
-            return "AI vision service error: " + e.getMessage();
-        }
+        Map<String, Object> textContent = new HashMap<>();
+        textContent.put("type", "text");
+        textContent.put("text", prompt);
+        content.add(textContent);
+
+        Map<String, Object> imageContent = new HashMap<>();
+        imageContent.put("type", "image_url");
+        Map<String, String> imageUrl = new HashMap<>();
+        imageUrl.put("url", "data:image/jpeg;base64," + base64Image);
+        imageContent.put("image_url", imageUrl);
+        content.add(imageContent);
+
+        userMsg.put("content", content);
+        messages.add(userMsg);
+
+        // Updated to latest vision-capable model
+        return openAIClient.chat("gpt-4o", messages, 1000, 0.7);
     }
 
     /**
      * Plant Recommendations - Recommend suitable plants based on location and sensor data
      */
-    public String getPlantRecommendations(String location, Map<String, Object> sensorData) {
+    public CompletableFuture<String> getPlantRecommendations(String location, Map<String, Object> sensorData) {
         StringBuilder prompt = new StringBuilder();
         prompt.append("Based on the following information, recommend suitable plants for cultivation:\n");
         prompt.append("Location: ").append(location != null ? location : "Unknown").append("\n");
@@ -136,14 +183,14 @@ public class PlantAIService {
         
         prompt.append("Please recommend 3-5 suitable plants, including: plant name, cultivation difficulty, care tips, expected harvest time.");
         
-        return callOpenAI(prompt.toString(), 
+        return callOpenAI(AIResponseCache.recommendationKey(location, sensorData), prompt.toString(),
             "You are a professional horticulture expert. Please recommend the most suitable plants based on environmental conditions.");
     }
 
     /**
      * Plant Care Advice - Provide care advice based on plant type and current conditions
      */
-    public String getPlantCareAdvice(String plantName, Map<String, Object> currentConditions) {
+    public CompletableFuture<String> getPlantCareAdvice(String plantName, Map<String, Object> currentConditions) {
         StringBuilder prompt = new StringBuilder();
         prompt.append("Please provide care advice for the following plant:\n");
         prompt.append("Plant Name: ").append(plantName).append("\n");
@@ -157,80 +204,78 @@ public class PlantAIService {
         
         prompt.append("Please provide: watering frequency, fertilization advice, light requirements, common problem prevention.");
         
-        return callOpenAI(prompt.toString(), 
+        return callOpenAI(AIResponseCache.careKey(plantName, currentConditions), prompt.toString(),
             "You are a professional plant care expert. Please provide detailed care guidance.");
     }
 
     /**
      * General Plant Q&A - Limited to plant-related topics
      */
-    public String askPlantQuestion(String question) {
+    public CompletableFuture<String> askPlantQuestion(String question) {
         // Check if the question is plant-related
         if (!isPlantRelatedQuestion(question)) {
-            return "Sorry, I can only answer questions related to plants, gardening, and cultivation. Please ask about plant identification, cultivation advice, care tips, etc.";
+            return CompletableFuture.completedFuture("Sorry, I can only answer questions related to plants, gardening, and cultivation. Please ask about plant identification, cultivation advice, care tips, etc.");
         }
         
-        return callOpenAI(question, 
+        return callOpenAI(AIResponseCache.askKey(question), question,
             "You are a professional plant and gardening expert. Please answer plant-related questions.");
     }
 
     /**
-     * 调用OpenAI API
+     * General Plant Q&A, streamed - onToken receives the answer piece by piece as the model writes it
      */
-    private String callOpenAI(String userMessage, String systemMessage) {
-        try {
-            RestTemplate restTemplate = new RestTemplate();
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.setBearerAuth(apiKey);
-
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("model", "gpt-4o");  // Updated to latest model for better performance
-            requestBody.put("temperature", 0.7);
-            requestBody.put("max_tokens", 1000);
-
-            List<Map<String, String>> messages = new ArrayList<>();
-            
-            Map<String, String> systemMsg = new HashMap<>();
-            systemMsg.put("role", "system");
-            systemMsg.put("content", systemMessage);
-            messages.add(systemMsg);
-            
-            Map<String, String> userMsg = new HashMap<>();
-            userMsg.put("role", "user");
-            userMsg.put("content", userMessage);
-            messages.add(userMsg);
-            
-            requestBody.put("messages", messages);
-
-            HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
-
-            ResponseEntity<Map> response = restTemplate.exchange(
-                    API_URL, HttpMethod.POST, request, Map.class
-            );
+    public CompletableFuture<String> askPlantQuestionStream(String question, Consumer<String> onToken) {
+        if (!isPlantRelatedQuestion(question)) {
+            String refusal = "Sorry, I can only answer questions related to plants, gardening, and cultivation. Please ask about plant identification, cultivation advice, care tips, etc.";
+            onToken.accept(refusal);
+            return CompletableFuture.completedFuture(refusal);
+        }
 
-            Map<String, Object> responseBody = response.getBody();
-            if (responseBody == null) {
-                return "Unable to get AI response, please try again later.";
-            }
+        String cacheKey = AIResponseCache.askKey(question);
+        String cached = aiResponseCache.get(cacheKey);
+        if (cached != null) {
+            onToken.accept(cached);
+            return CompletableFuture.completedFuture(cached);
+        }
+        long start = System.nanoTime();
+        return openAIClient.chatStream("gpt-4o", textMessages(question,
+                "You are a professional plant and gardening expert. Please answer plant-related questions."), 1000, 0.7, onToken)
+                .thenApply(answer -> {
+                    aiResponseCache.put(cacheKey, answer, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    return answer;
+                });
+    }
 
-            List<Map<String, Object>> choices = (List<Map<String, Object>>) responseBody.get("choices");
-            if (choices != null && !choices.isEmpty()) {
-                Map<String, Object> message = (Map<String, Object>) choices.get(0).get("message");
-                return (String) message.get("content");
-            }
+    /**
+     * 调用OpenAI API, answers are shared through AIResponseCache under cacheKey
+     */
+    private CompletableFuture<String> callOpenAI(String cacheKey, String userMessage, String systemMessage) {
+        // Updated to latest model for better performance
+        return aiResponseCache.getOrLoad(cacheKey,
+                        () -> openAIClient.chat("gpt-4o", textMessages(userMessage, systemMessage), 1000, 0.7))
+                .exceptionally(e -> {
+                    log.error("Text API Error: {}", cause(e).getMessage());
+                    return "AI text service error: " + cause(e).getMessage();
+                });
+    }
 
-            return "AI response format error, please try again later.";
+    private static List<Map<String, Object>> textMessages(String userMessage, String systemMessage) {
+        List<Map<String, Object>> messages = new ArrayList<>();
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            System.err.println("Text API Error: " + e.getMessage());
-            if (e.getCause() != null) {
-                System.err.println("Cause: " + e.getCause().getMessage());
-            }
-            return "AI text service error: " + e.getMessage();
-        }
+        Map<String, Object> systemMsg = new HashMap<>();
+        systemMsg.put("role", "system");
+        systemMsg.put("content", systemMessage);
+        messages.add(systemMsg);
+
+        Map<String, Object> userMsg = new HashMap<>();
+        userMsg.put("role", "user");
+        userMsg.put("content", userMessage);
+        messages.add(userMsg);
+        return messages;
+    }
+
+    private static Throwable cause(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
     }
 
     /**
@@ -0,0 +1,151 @@
+package org.unimelb.common.cache;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A Result body with a list of plants, cached once for every user: each "isFavourite" is stored as false and
+ * its byte offset is kept next to the plantId, so render() only overwrites the plants the user liked.
+ * "true " has the same length as "false", the trailing space is valid JSON whitespace.
+ * The list is data (Result.success(list)) or data.records (KeysetPage).
+ */
+public final class FavouriteTemplate {
+
+    private static final String FIELD = "isFavourite";
+
+    private static final byte[] TRUE = "true ".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+
+    private final byte[] json;
+
+    private final long[] plantIds;
+
+    private final int[] offsets;
+
+    private FavouriteTemplate(byte[] json, long[] plantIds, int[] offsets) {
+        this.json = json;
+        this.plantIds = plantIds;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Read {"data": [{"plantId": .., "isFavourite": ..}, ..]} (or {"data": {"records": [..]}}) and reset every
+     * isFavourite to false. null when the body has a true / false isFavourite that could not be tied to a plant
+     * of the list: it would be served to every user as it is, so such a body must not be cached.
+     */
+    public static FavouriteTemplate parse(JsonFactory factory, byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length + 64);
+        long[] ids = new long[64];
+        int[] offsets = new int[64];
+        int count = 0;
+        int copied = 0;
+        int flags = 0;
+
+        Long plantId = null;
+        int offset = -1;
+        try (JsonParser parser = factory.createParser(body)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.START_OBJECT && isPlant(parser.getParsingContext())) {
+                    plantId = null;
+                    offset = -1;
+                } else if (token == JsonToken.END_OBJECT && isList(parser.getParsingContext())) {
+                    if (plantId != null && offset >= 0) {
+                        if (count == ids.length) {
+                            ids = Arrays.copyOf(ids, count * 2);
+                            offsets = Arrays.copyOf(offsets, count * 2);
+                        }
+                        ids[count] = plantId;
+                        offsets[count++] = offset;
+                    }
+                } else if (token.isScalarValue()) {
+                    String field = parser.currentName();
+                    boolean flag = FIELD.equals(field) && (token == JsonToken.VALUE_TRUE || token == JsonToken.VALUE_FALSE);
+                    if (flag) {
+                        flags++;
+                    }
+                    if (!isPlant(parser.getParsingContext())) {
+                        continue;
+                    }
+                    if ("plantId".equals(field) && token == JsonToken.VALUE_NUMBER_INT) {
+                        plantId = parser.getLongValue();
+                    } else if (flag) {
+                        int at = (int) parser.currentTokenLocation().getByteOffset();
+                        out.write(body, copied, at - copied);
+                        offset = out.size();
+                        out.write(FALSE);
+                        copied = at + (token == JsonToken.VALUE_TRUE ? 4 : 5);
+                    }
+                }
+            }
+        }
+        if (flags != count) {
+            return null;
+        }
+        out.write(body, copied, body.length - copied);
+        return new FavouriteTemplate(out.toByteArray(), Arrays.copyOf(ids, count), Arrays.copyOf(offsets, count));
+    }
+
+    /**
+     * An element of the plant list, the parser is back in the list after its END_OBJECT.
+     */
+    private static boolean isPlant(JsonStreamContext object) {
+        return object.inObject() && isList(object.getParent());
+    }
+
+    /**
+     * data of the root object, or data.records of a KeysetPage.
+     */
+    private static boolean isList(JsonStreamContext array) {
+        if (array == null || !array.inArray()) {
+            return false;
+        }
+        JsonStreamContext parent = array.getParent();
+        return isRootField(parent, "data")
+                || parent.inObject() && "records".equals(parent.getCurrentName()) && isRootField(parent.getParent(), "data");
+    }
+
+    private static boolean isRootField(JsonStreamContext object, String name) {
+        return object != null && object.inObject() && name.equals(object.getCurrentName())
+                && object.getParent() != null && object.getParent().inRoot();
+    }
+
+    /**
+     * The body as every plant had isFavourite false, shared, must not be modified.
+     */
+    public byte[] json() {
+        return json;
+    }
+
+    /**
+     * The body for a user: json() itself when none of its plants is liked, otherwise a patched copy.
+     */
+    public byte[] render(Roaring64Bitmap liked) {
+        if (liked.isEmpty()) {
+            return json;
+        }
+        byte[] body = null;
+        for (int i = 0; i < plantIds.length; i++) {
+            if (liked.contains(plantIds[i])) {
+                if (body == null) {
+                    body = json.clone();
+                }
+                System.arraycopy(TRUE, 0, body, offsets[i], TRUE.length);
+            }
+        }
+        return body == null ? json : body;
+    }
+
+    long weight() {
+        return plantIds.length * 12L;
+    }
+}
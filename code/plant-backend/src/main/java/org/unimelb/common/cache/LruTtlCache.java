@@ -0,0 +1,227 @@
+package org.unimelb.common.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Small thread-safe cache with a maximum entry count, or total weight (least recently used entry is evicted first)
+ * and a time to live per entry. Hit / miss / eviction counts can be published to micrometer.
+ */
+public class LruTtlCache<K, V> {
+
+    private final long maxWeight;
+
+    private final long ttlMillis;
+
+    private final ToLongFunction<V> weigher;
+
+    private final LinkedHashMap<K, Entry<V>> map = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long weight;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    public LruTtlCache(int maxSize, long ttlMillis) {
+        this(maxSize, ttlMillis, value -> 1);
+    }
+
+    /**
+     * Cache bounded by the sum of weigher(value), e.g. the size in bytes, instead of the entry count.
+     * Values heavier than maxWeight are not cached.
+     */
+    public LruTtlCache(long maxWeight, long ttlMillis, ToLongFunction<V> weigher) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxWeight = maxWeight;
+        this.ttlMillis = ttlMillis;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Cached value, or null when absent or expired.
+     */
+    public synchronized V get(K key) {
+        V value = lookup(key);
+        (value != null ? hits : misses).incrementAndGet();
+        return value;
+    }
+
+    /**
+     * Value of the first of keys still cached, counted as a single hit or miss; absent is called with the
+     * keys before it that were not cached.
+     */
+    public synchronized V getFirst(List<K> keys, Consumer<K> absent) {
+        for (K key : keys) {
+            V value = lookup(key);
+            if (value != null) {
+                hits.incrementAndGet();
+                return value;
+            }
+            absent.accept(key);
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    private V lookup(K key) {
+        Entry<V> entry = map.get(key);
+        if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+            return entry.value;
+        }
+        if (entry != null) {
+            map.remove(key);
+            weight -= entry.weight;
+            evictions.incrementAndGet();
+        }
+        return null;
+    }
+
+    /**
+     * Cached value, or the one created by factory (and cached) when absent or expired.
+     */
+    public synchronized V computeIfAbsent(K key, Function<K, V> factory) {
+        V value = get(key);
+        if (value == null) {
+            value = factory.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, ttlMillis);
+    }
+
+    /**
+     * Cache a value with its own time to live, capped by the cache ttl.
+     */
+    public synchronized void put(K key, V value, long ttlMillis) {
+        if (value == null) {
+            return;
+        }
+        long ttl = Math.min(ttlMillis, this.ttlMillis);
+        if (ttl <= 0) {
+            return;
+        }
+        long valueWeight = weigher.applyAsLong(value);
+        if (valueWeight > maxWeight) {
+            invalidate(key);
+            return;
+        }
+        Entry<V> previous = map.put(key, new Entry<>(value, System.currentTimeMillis() + ttl, valueWeight));
+        weight += valueWeight - (previous == null ? 0 : previous.weight);
+        Iterator<Entry<V>> eldest = map.values().iterator();
+        while (weight > maxWeight) {
+            weight -= eldest.next().weight;
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        Entry<V> entry = map.remove(key);
+        if (entry != null) {
+            weight -= entry.weight;
+        }
+    }
+
+    /**
+     * Drop every entry whose key matches.
+     */
+    public synchronized void invalidateIf(Predicate<K> predicate) {
+        Iterator<Map.Entry<K, Entry<V>>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<K, Entry<V>> e = it.next();
+            if (predicate.test(e.getKey())) {
+                weight -= e.getValue().weight;
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        map.clear();
+        weight = 0;
+    }
+
+    /**
+     * Visit the entries that have not expired, least recently used first, e.g. to save them.
+     * expiresAt is in epoch millis.
+     */
+    public synchronized void forEach(EntryVisitor<K, V> visitor) {
+        long now = System.currentTimeMillis();
+        map.forEach((key, entry) -> {
+            if (entry.expiresAt > now) {
+                visitor.visit(key, entry.value, entry.expiresAt);
+            }
+        });
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    /**
+     * Total weight of the cached values, the entry count unless a weigher was given.
+     */
+    public synchronized long weight() {
+        return weight;
+    }
+
+    public long hitCount() {
+        return hits.get();
+    }
+
+    public long missCount() {
+        return misses.get();
+    }
+
+    public long evictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * Publish cache.size / cache.weight / cache.gets / cache.evictions meters tagged with the cache name.
+     */
+    public void bindTo(MeterRegistry registry, String name) {
+        Gauge.builder("cache.size", this, LruTtlCache::size)
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("cache.weight", this, LruTtlCache::weight)
+                .tag("cache", name)
+                .register(registry);
+        FunctionCounter.builder("cache.gets", hits, AtomicLong::get)
+                .tag("cache", name).tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, AtomicLong::get)
+                .tag("cache", name).tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, AtomicLong::get)
+                .tag("cache", name)
+                .register(registry);
+    }
+
+    @FunctionalInterface
+    public interface EntryVisitor<K, V> {
+        void visit(K key, V value, long expiresAt);
+    }
+
+    private record Entry<V>(V value, long expiresAt, long weight) {
+    }
+}
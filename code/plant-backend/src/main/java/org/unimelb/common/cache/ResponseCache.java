@@ -0,0 +1,115 @@
+package org.unimelb.common.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized (and gzip compressed) bodies of hot read-only GET endpoints, filled and served by ResponseCacheFilter.
+ * Bounded by plant.response-cache.max-bytes. Services call invalidate(route) when they change the data behind a route.
+ */
+@Component
+public class ResponseCache {
+
+    public static final String PLANTS_ALL = "/api/plants/all";
+
+    public static final String GARDENS_ALL = "/api/garden/all";
+
+    private final LruTtlCache<Key, CachedResponse> cache;
+
+    /** bumped by every invalidation, a response computed across one is not stored */
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public ResponseCache(@Value("${plant.response-cache.max-bytes:67108864}") long maxBytes,
+                         @Value("${plant.response-cache.ttl-seconds:300}") long ttlSeconds,
+                         MeterRegistry meterRegistry) {
+        this.cache = new LruTtlCache<>(maxBytes, ttlSeconds * 1000, CachedResponse::weight);
+        this.cache.bindTo(meterRegistry, "response");
+    }
+
+    public CachedResponse get(String route, String key) {
+        return cache.get(new Key(route, key));
+    }
+
+    /**
+     * Read before computing a response, then passed to put.
+     */
+    public long generation(String route) {
+        return generations.computeIfAbsent(route, r -> new AtomicLong()).get();
+    }
+
+    public void put(String route, String key, long generation, String contentType, byte[] json) {
+        put(route, key, generation, new CachedResponse(contentType, json, gzip(json), null));
+    }
+
+    /**
+     * Store a body shared by every user, the filter renders isFavourite per user from the template.
+     */
+    public void put(String route, String key, long generation, String contentType, FavouriteTemplate favourites) {
+        byte[] json = favourites.json();
+        put(route, key, generation, new CachedResponse(contentType, json, gzip(json), favourites));
+    }
+
+    private void put(String route, String key, long generation, CachedResponse response) {
+        // compressed before taking the lock, it only guards the generation check against invalidateNow
+        synchronized (this) {
+            if (generation(route) != generation) {
+                return;
+            }
+            cache.put(new Key(route, key), response);
+        }
+    }
+
+    /**
+     * Drop every cached response of the route, again after the current transaction commits
+     * so a reader that saw the old rows cannot leave them behind.
+     */
+    public void invalidate(String route) {
+        invalidateNow(route);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateNow(route);
+                }
+            });
+        }
+    }
+
+    private synchronized void invalidateNow(String route) {
+        generations.computeIfAbsent(route, r -> new AtomicLong()).incrementAndGet();
+        cache.invalidateIf(key -> key.route().equals(route));
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream bs = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bs)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bs.toByteArray();
+    }
+
+    /**
+     * favourites is null for bodies that are the same for every user.
+     */
+    public record CachedResponse(String contentType, byte[] json, byte[] gzip, FavouriteTemplate favourites) {
+        long weight() {
+            return json.length + gzip.length + (favourites == null ? 0 : favourites.weight());
+        }
+    }
+
+    private record Key(String route, String key) {
+    }
+}
@@ -0,0 +1,132 @@
+package org.unimelb.common.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the loader, callers arriving while it
+ * is in flight get the same result instead of starting their own. Complements a cache, which only helps
+ * once the first result exists.
+ * Every caller gets its own dependent future, cancelling it does not cancel the shared load for the others.
+ * The loader's future is cancelled when every caller has cancelled, or when it is still running after the
+ * timeout; the load then fails for all its callers and the key is free for a new one.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final long timeoutMillis;
+
+    private final AtomicLong leaders = new AtomicLong();
+
+    private final AtomicLong joined = new AtomicLong();
+
+    public SingleFlight(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public CompletableFuture<V> run(K key, Supplier<CompletableFuture<V>> loader) {
+        while (true) {
+            Flight<V> flight = new Flight<>();
+            Flight<V> existing = inFlight.putIfAbsent(key, flight);
+            if (existing == null) {
+                leaders.incrementAndGet();
+                start(key, flight, loader);
+                return flight.waiter();
+            }
+            if (existing.join()) {
+                joined.incrementAndGet();
+                return existing.waiter();
+            }
+            // every caller of that flight gave up, it is being removed
+            inFlight.remove(key, existing);
+        }
+    }
+
+    private void start(K key, Flight<V> flight, Supplier<CompletableFuture<V>> loader) {
+        flight.result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .whenComplete((value, e) -> {
+                    inFlight.remove(key, flight);
+                    // timed out or abandoned: stop the load, a no-op when it already finished
+                    flight.cancelLoad();
+                });
+        try {
+            CompletableFuture<V> load = loader.get();
+            flight.load = load;
+            if (flight.result.isDone()) {
+                load.cancel(true);
+            }
+            load.whenComplete((value, e) -> {
+                // removed before the callers continue, so a caller arriving afterwards finds the cached result instead
+                inFlight.remove(key, flight);
+                if (e != null) {
+                    flight.result.completeExceptionally(e);
+                } else {
+                    flight.result.complete(value);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, flight);
+            flight.result.completeExceptionally(e);
+        }
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * Publish singleflight.in_flight and singleflight.calls{result=leader|joined} meters tagged with the name.
+     */
+    public void bindTo(MeterRegistry registry, String name) {
+        Gauge.builder("singleflight.in_flight", this, SingleFlight::inFlight)
+                .tag("flight", name)
+                .register(registry);
+        FunctionCounter.builder("singleflight.calls", leaders, AtomicLong::get)
+                .tag("flight", name).tag("result", "leader")
+                .register(registry);
+        FunctionCounter.builder("singleflight.calls", joined, AtomicLong::get)
+                .tag("flight", name).tag("result", "joined")
+                .register(registry);
+    }
+
+    private static final class Flight<V> {
+
+        final CompletableFuture<V> result = new CompletableFuture<>();
+
+        /** callers that have not cancelled, 0 once the flight is abandoned */
+        final AtomicInteger waiters = new AtomicInteger(1);
+
+        volatile CompletableFuture<V> load;
+
+        boolean join() {
+            return waiters.getAndUpdate(n -> n == 0 ? 0 : n + 1) > 0;
+        }
+
+        CompletableFuture<V> waiter() {
+            CompletableFuture<V> waiter = result.copy();
+            waiter.whenComplete((value, e) -> {
+                if (waiter.isCancelled() && waiters.decrementAndGet() == 0) {
+                    result.cancel(false);
+                }
+            });
+            return waiter;
+        }
+
+        void cancelLoad() {
+            CompletableFuture<V> current = load;
+            if (current != null) {
+                current.cancel(true);
+            }
+        }
+    }
+}
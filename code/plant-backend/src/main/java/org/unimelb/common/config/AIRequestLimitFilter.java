@@ -0,0 +1,151 @@
+package org.unimelb.common.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Resource;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.unimelb.common.constant.ResultConstant;
+import org.unimelb.common.limit.RequestLimiter;
+import org.unimelb.common.utils.JwtUtil;
+import org.unimelb.common.vo.Result;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admission control for /api/plant-ai: per user (or IP for anonymous calls) token bucket and a global
+ * in-flight cap, see RequestLimiter. Rejected requests get 429 with Retry-After before any AI work is done.
+ * The in-flight slot is held until the response is complete, also for the async and streaming endpoints.
+ */
+@Slf4j
+@Component
+public class AIRequestLimitFilter extends OncePerRequestFilter {
+
+    private static final String PREFIX = "/api/plant-ai/";
+
+    @Resource
+    private JwtUtil jwtUtil;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    private final RequestLimiter limiter;
+
+    private final int identifyCost;
+
+    public AIRequestLimitFilter(@Value("${plant.ai-limit.permits-per-minute:30}") int permitsPerMinute,
+                                @Value("${plant.ai-limit.burst:10}") int burst,
+                                @Value("${plant.ai-limit.max-clients:100000}") int maxClients,
+                                @Value("${plant.ai-limit.max-in-flight:32}") int maxInFlight,
+                                @Value("${plant.ai-limit.max-queue:64}") int maxQueue,
+                                @Value("${plant.ai-limit.max-wait-millis:0}") long maxWaitMillis,
+                                @Value("${plant.ai-limit.identify-cost:3}") int identifyCost,
+                                MeterRegistry meterRegistry) {
+        this.limiter = new RequestLimiter(permitsPerMinute, burst, maxClients, maxInFlight, maxQueue, maxWaitMillis);
+        this.limiter.bindTo(meterRegistry, "plant-ai");
+        this.identifyCost = identifyCost;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return !uri.startsWith(PREFIX) || uri.endsWith("/sensor-example");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // a photo costs several questions
+        int cost = request.getRequestURI().endsWith("/identify") ? identifyCost : 1;
+        RequestLimiter.Decision decision;
+        try {
+            decision = limiter.acquire(clientKey(request), cost);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reject(response, 1000);
+            return;
+        }
+        if (!decision.admitted()) {
+            log.debug("plant-ai request rejected ({}): {}", decision.reason(), request.getRequestURI());
+            reject(response, decision.retryAfterMillis());
+            return;
+        }
+
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                limiter.release();
+            }
+        };
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // CompletableFuture / SseEmitter: keep the slot until the async response is done
+                request.getAsyncContext().addListener(new ReleaseListener(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        String token = request.getHeader("Authorization");
+        if (StringUtils.hasLength(token)) {
+            try {
+                Long userId = jwtUtil.parseJwt(token).userId();
+                if (userId != null) {
+                    return "user:" + userId;
+                }
+            } catch (Exception e) {
+                // invalid token, the endpoints are anonymous anyway: limit by address
+            }
+        }
+        // the client address from X-Forwarded-For when behind a proxy, see server.forward-headers-strategy
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterMillis) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (retryAfterMillis + 999) / 1000)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), Result.fail(
+                ResultConstant.FAIL_TOO_MANY_REQUESTS.getCode(), ResultConstant.FAIL_TOO_MANY_REQUESTS.getMessage()));
+    }
+
+    private record ReleaseListener(Runnable release) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
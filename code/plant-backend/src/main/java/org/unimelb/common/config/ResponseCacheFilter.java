@@ -0,0 +1,138 @@
+package org.unimelb.common.config;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.Resource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.unimelb.common.cache.FavouriteTemplate;
+import org.unimelb.common.cache.ResponseCache;
+import org.unimelb.common.constant.ResultConstant;
+import org.unimelb.common.context.UserContext;
+import org.unimelb.plant.cache.LikedPlantsCache;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Serves cached bodies of the routes below without running the controller, service, mapper and Jackson again.
+ * Runs in the security chain after authorization, so UserContext is set when isFavourite is rendered.
+ * Only successful Result bodies are stored; ?stream=true requests are passed through.
+ */
+@Component
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    /** route -> whether the body carries PlantVO.isFavourite, cached once and marked for the current user when served */
+    private static final Map<String, Boolean> ROUTES = Map.of(
+            ResponseCache.PLANTS_ALL, true,
+            ResponseCache.GARDENS_ALL, false
+    );
+
+    @Resource
+    private ResponseCache responseCache;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Resource
+    private LikedPlantsCache likedPlantsCache;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod())
+                || !ROUTES.containsKey(request.getRequestURI())
+                || request.getParameter("stream") != null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String route = request.getRequestURI();
+        boolean favourites = ROUTES.get(route);
+        String key = key(request);
+        ResponseCache.CachedResponse cached = responseCache.get(route, key);
+        if (cached != null) {
+            write(request, response, cached);
+            return;
+        }
+
+        long generation = responseCache.generation(route);
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+        byte[] body = wrapper.getContentAsByteArray();
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK && isSuccess(wrapper.getContentType(), body)) {
+            if (favourites) {
+                FavouriteTemplate template = FavouriteTemplate.parse(objectMapper.getFactory(), body);
+                // a flag the template cannot mark per user would leak this user's favourites to everyone
+                if (template != null) {
+                    responseCache.put(route, key, generation, wrapper.getContentType(), template);
+                }
+            } else {
+                responseCache.put(route, key, generation, wrapper.getContentType(), body);
+            }
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private static String key(HttpServletRequest request) {
+        StringBuilder key = new StringBuilder();
+        // parameter order does not matter
+        new TreeMap<>(request.getParameterMap()).forEach((name, values) ->
+                key.append('&').append(name).append('=').append(Arrays.toString(values)));
+        return key.toString();
+    }
+
+    private void write(HttpServletRequest request, HttpServletResponse response,
+                       ResponseCache.CachedResponse cached) throws IOException {
+        byte[] json = cached.json();
+        if (cached.favourites() != null) {
+            json = cached.favourites().render(likedPlantsCache.getLikedPlants(UserContext.getCurrentUserId()));
+        }
+        // the stored gzip is of the unmarked body: a body marked for this user is sent uncompressed,
+        // compressing it again on every request would cost more than the cache saves
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = json == cached.json() && acceptEncoding != null && acceptEncoding.contains("gzip");
+        byte[] body = gzip ? cached.gzip() : json;
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cached.contentType());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * Errors are returned as Result with a non-success code and HTTP 200, look at the code field.
+     */
+    private boolean isSuccess(String contentType, byte[] body) throws IOException {
+        if (contentType == null || !MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType))) {
+            return false;
+        }
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("code".equals(field)) {
+                    return parser.getIntValue() == ResultConstant.SUCCESS.getCode();
+                }
+                parser.skipChildren();
+            }
+        }
+        return false;
+    }
+}
@@ -14,7 +14,9 @@ public enum ResultConstant {
 
     FAIL_UNLOGIN_ERROR(203,"Your login state has expired, please login again"),
 
-    FAIL_PERMISSION_DENIED(204,"No permission to access this resource"),;
+    FAIL_PERMISSION_DENIED(204,"No permission to access this resource"),
+
+    FAIL_TOO_MANY_REQUESTS(429,"Too many requests, please try again later"),;
 
     private Integer code;
     private String message;
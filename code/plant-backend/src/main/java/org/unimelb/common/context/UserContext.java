@@ -2,6 +2,10 @@ package org.unimelb.common.context;
 
 import org.unimelb.user.entity.User;
 
+/**
+ * User of the current request, set by JwtAuthenticationFilter. A request keeps its thread from the filter
+ * to the response (a pooled or a virtual one), async continuations do not see it.
+ */
 public class UserContext {
     private static final ThreadLocal<User> userHolder = new ThreadLocal<>();
 
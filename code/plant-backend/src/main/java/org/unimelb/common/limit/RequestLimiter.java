@@ -0,0 +1,146 @@
+package org.unimelb.common.limit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.unimelb.common.cache.LruTtlCache;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control in two steps:
+ * a token bucket per client key (user or IP), then a global cap on requests in flight. Requests over the cap
+ * wait up to maxWait in a queue of at most maxQueue, everything else is rejected right away with a retry hint.
+ * The wait parks the calling thread, which is cheap on virtual threads but holds a servlet worker on platform
+ * threads: there maxWait should be 0, over the cap is then rejected at once (see application-virtual-threads.yml).
+ * A request rejected by the global cap gets its client tokens back. Every admitted request must call release() exactly once.
+ */
+public class RequestLimiter {
+
+    private static final long BUSY_RETRY_AFTER_MILLIS = 1000;
+
+    private final int burst;
+
+    private final double permitsPerSecond;
+
+    private final LruTtlCache<String, TokenBucket> buckets;
+
+    private final int maxInFlight;
+
+    private final Semaphore inFlight;
+
+    private final int maxQueue;
+
+    private final long maxWaitMillis;
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final AtomicLong rejectedRate = new AtomicLong();
+
+    private final AtomicLong rejectedQueueFull = new AtomicLong();
+
+    private final AtomicLong rejectedTimeout = new AtomicLong();
+
+    public RequestLimiter(int permitsPerMinute, int burst, int maxKeys, int maxInFlight, int maxQueue, long maxWaitMillis) {
+        this.burst = burst;
+        this.permitsPerSecond = permitsPerMinute / 60d;
+        // a bucket lives until it would be full again, an empty one refills in burst / rate
+        this.buckets = new LruTtlCache<>(maxKeys, permitsPerMinute > 0
+                ? (long) Math.ceil(burst * 60_000d / permitsPerMinute) + 1 : Long.MAX_VALUE / 4);
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight, true);
+        // without a wait there is nothing to queue for
+        this.maxQueue = maxWaitMillis > 0 ? maxQueue : 0;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    /**
+     * Admit a request of the client with the given cost in tokens. Blocks at most maxWait when every
+     * in-flight slot is taken.
+     */
+    public Decision acquire(String key, int cost) throws InterruptedException {
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(burst, permitsPerSecond, now));
+        long waitNanos = bucket.tryConsume(cost, now);
+        // expiry follows the tokens left, not the first request: an active client never gets a fresh burst
+        buckets.put(key, bucket, TimeUnit.NANOSECONDS.toMillis(bucket.nanosUntilFull(now)) + 1);
+        if (waitNanos > 0) {
+            rejectedRate.incrementAndGet();
+            return Decision.rejected("rate", TimeUnit.NANOSECONDS.toMillis(waitNanos) + 1);
+        }
+
+        // the timed tryAcquire keeps the fair order, a free slot goes to the queued requests first
+        if (inFlight.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+            return Decision.ADMITTED;
+        }
+        if (queued.incrementAndGet() > maxQueue) {
+            queued.decrementAndGet();
+            bucket.refund(cost);
+            rejectedQueueFull.incrementAndGet();
+            return Decision.rejected("queue_full", BUSY_RETRY_AFTER_MILLIS);
+        }
+        boolean admitted = false;
+        try {
+            admitted = inFlight.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } finally {
+            queued.decrementAndGet();
+            if (!admitted) {
+                // also when interrupted: the client was not served
+                bucket.refund(cost);
+            }
+        }
+        if (admitted) {
+            return Decision.ADMITTED;
+        }
+        rejectedTimeout.incrementAndGet();
+        return Decision.rejected("timeout", BUSY_RETRY_AFTER_MILLIS);
+    }
+
+    public void release() {
+        inFlight.release();
+    }
+
+    public int inFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    public int queued() {
+        return queued.get();
+    }
+
+    /**
+     * Publish limiter.in_flight / limiter.queue gauges and limiter.rejected{reason} counters tagged with the limiter name.
+     */
+    public void bindTo(MeterRegistry registry, String name) {
+        Gauge.builder("limiter.in_flight", this, RequestLimiter::inFlight)
+                .tag("limiter", name)
+                .register(registry);
+        Gauge.builder("limiter.queue", this, RequestLimiter::queued)
+                .tag("limiter", name)
+                .register(registry);
+        FunctionCounter.builder("limiter.rejected", rejectedRate, AtomicLong::get)
+                .tag("limiter", name).tag("reason", "rate")
+                .register(registry);
+        FunctionCounter.builder("limiter.rejected", rejectedQueueFull, AtomicLong::get)
+                .tag("limiter", name).tag("reason", "queue_full")
+                .register(registry);
+        FunctionCounter.builder("limiter.rejected", rejectedTimeout, AtomicLong::get)
+                .tag("limiter", name).tag("reason", "timeout")
+                .register(registry);
+    }
+
+    /**
+     * retryAfterMillis is a hint for the Retry-After header of a rejected request.
+     */
+    public record Decision(boolean admitted, String reason, long retryAfterMillis) {
+
+        static final Decision ADMITTED = new Decision(true, null, 0);
+
+        static Decision rejected(String reason, long retryAfterMillis) {
+            return new Decision(false, reason, retryAfterMillis);
+        }
+    }
+}
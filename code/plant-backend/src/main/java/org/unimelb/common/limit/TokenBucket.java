@@ -0,0 +1,54 @@
+package org.unimelb.common.limit;
+
+/**
+ * Token bucket: holds up to capacity tokens and refills at a fixed rate, so a client can burst
+ * capacity requests and then continues at the refill rate.
+ */
+public class TokenBucket {
+
+    private final long capacity;
+
+    private final double tokensPerNano;
+
+    private double tokens;
+
+    private long refilledAt;
+
+    public TokenBucket(long capacity, double tokensPerSecond, long nowNanos) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.refilledAt = nowNanos;
+    }
+
+    /**
+     * Take cost tokens (at most capacity). Returns 0 when they were taken, otherwise the nanos until
+     * enough tokens will be there; nothing is taken in that case.
+     */
+    public synchronized long tryConsume(int cost, long nowNanos) {
+        long needed = Math.min(cost, capacity);
+        tokens = Math.min(capacity, tokens + (nowNanos - refilledAt) * tokensPerNano);
+        refilledAt = nowNanos;
+        if (tokens >= needed) {
+            tokens -= needed;
+            return 0;
+        }
+        return (long) Math.ceil((needed - tokens) / tokensPerNano);
+    }
+
+    /**
+     * Nanos until the bucket is full again at the refill rate; a dropped bucket is recreated full, so it must
+     * not be dropped before then.
+     */
+    public synchronized long nanosUntilFull(long nowNanos) {
+        double current = Math.min(capacity, tokens + (nowNanos - refilledAt) * tokensPerNano);
+        return (long) Math.ceil((capacity - current) / tokensPerNano);
+    }
+
+    /**
+     * Give back tokens taken by tryConsume for a request that was not served after all.
+     */
+    public synchronized void refund(int cost) {
+        tokens = Math.min(capacity, tokens + Math.min(cost, capacity));
+    }
+}
@@ -0,0 +1,55 @@
+package org.unimelb.common.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Content-addressed storage for image bytes, keyed by the hex SHA-256 of the content.
+ * Storing the same bytes twice returns the same key and keeps a single copy.
+ */
+public interface BlobStore {
+
+    /**
+     * Store the bytes (no-op when already present) and return their key.
+     */
+    String put(byte[] data) throws IOException;
+
+    boolean exists(String hash);
+
+    long size(String hash) throws IOException;
+
+    /**
+     * Read-only view of the content.
+     */
+    ByteBuffer read(String hash) throws IOException;
+
+    /**
+     * At most the first length bytes, e.g. to sniff the content type without reading the whole blob.
+     */
+    byte[] readHead(String hash, int length) throws IOException;
+
+    /**
+     * Copy the content to the channel, returns the number of bytes written.
+     */
+    long transferTo(String hash, WritableByteChannel target) throws IOException;
+
+    default byte[] readAllBytes(String hash) throws IOException {
+        ByteBuffer buffer = read(hash);
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            // every JRE ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
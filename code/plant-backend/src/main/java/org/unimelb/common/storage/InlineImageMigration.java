@@ -0,0 +1,78 @@
+package org.unimelb.common.storage;
+
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.unimelb.plant.entity.Plant;
+import org.unimelb.plant.mapper.PlantMapper;
+import org.unimelb.user.entity.User;
+import org.unimelb.user.mapper.UserMapper;
+
+import java.util.List;
+
+/**
+ * One-off move of inline plant.image / users.avatar_data bytes into the BlobStore, in small batches.
+ * Enable with plant.storage.migrate-inline=true for one start after db/migration/003 is applied,
+ * then VACUUM FULL plant, users to give the space back.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "plant.storage.migrate-inline", havingValue = "true")
+public class InlineImageMigration implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 20;
+
+    @Resource
+    private BlobStore blobStore;
+
+    @Resource
+    private PlantMapper plantMapper;
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        int plants = 0;
+        List<Plant> batch;
+        do {
+            batch = plantMapper.selectList(
+                    Wrappers.<Plant>lambdaQuery()
+                            .select(Plant::getPlantId, Plant::getImage)
+                            .isNull(Plant::getImageHash)
+                            .isNotNull(Plant::getImage)
+                            .last("LIMIT " + BATCH_SIZE)
+            );
+            for (Plant plant : batch) {
+                String hash = blobStore.put(plant.getImage());
+                plantMapper.update(null, Wrappers.<Plant>lambdaUpdate()
+                        .set(Plant::getImageHash, hash)
+                        .set(Plant::getImage, null)
+                        .eq(Plant::getPlantId, plant.getPlantId()));
+                plants++;
+            }
+        } while (!batch.isEmpty());
+
+        int users = 0;
+        List<User> userBatch;
+        do {
+            userBatch = userMapper.selectList(
+                    Wrappers.<User>lambdaQuery()
+                            .select(User::getUserId, User::getAvatarData)
+                            .isNull(User::getAvatarHash)
+                            .isNotNull(User::getAvatarData)
+                            .last("LIMIT " + BATCH_SIZE)
+            );
+            for (User user : userBatch) {
+                userMapper.updateAvatarHash(user.getUserId().intValue(), blobStore.put(user.getAvatarData()));
+                users++;
+            }
+        } while (!userBatch.isEmpty());
+
+        log.info("moved {} plant images and {} avatars to the blob store", plants, users);
+    }
+}
@@ -0,0 +1,108 @@
+package org.unimelb.common.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * BlobStore on the local filesystem: root/ab/cd/abcd....
+ * Files are written to a temp file and renamed, so readers never see a partial blob.
+ * Reads are memory-mapped, transferTo uses FileChannel.transferTo (sendfile when the target is a socket or file).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "plant.storage.type", havingValue = "local", matchIfMissing = true)
+public class LocalFileBlobStore implements BlobStore {
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path root;
+
+    public LocalFileBlobStore(@Value("${plant.storage.local.root:./data/blobs}") String root) throws IOException {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        Files.createDirectories(this.root);
+        log.info("local blob store at {}", this.root);
+    }
+
+    @Override
+    public String put(byte[] data) throws IOException {
+        String hash = BlobStore.sha256(data);
+        Path path = pathOf(hash);
+        if (Files.exists(path)) {
+            return hash;
+        }
+        Files.createDirectories(path.getParent());
+        Path tmp = Files.createTempFile(path.getParent(), hash, ".tmp");
+        try {
+            Files.write(tmp, data);
+            Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // the same content was stored concurrently
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return hash;
+    }
+
+    @Override
+    public boolean exists(String hash) {
+        return Files.exists(pathOf(hash));
+    }
+
+    @Override
+    public long size(String hash) throws IOException {
+        return Files.size(pathOf(hash));
+    }
+
+    @Override
+    public ByteBuffer read(String hash) throws IOException {
+        try (FileChannel channel = FileChannel.open(pathOf(hash), StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    @Override
+    public byte[] readHead(String hash, int length) throws IOException {
+        try (FileChannel channel = FileChannel.open(pathOf(hash), StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate((int) Math.min(length, channel.size()));
+            while (head.hasRemaining() && channel.read(head) >= 0) {
+                // short reads are possible, keep reading until full or end of file
+            }
+            return Arrays.copyOf(head.array(), head.position());
+        }
+    }
+
+    @Override
+    public long transferTo(String hash, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(pathOf(hash), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+            return size;
+        }
+    }
+
+    private Path pathOf(String hash) {
+        if (hash == null || !HASH.matcher(hash).matches()) {
+            throw new IllegalArgumentException("invalid blob hash: " + hash);
+        }
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+}
@@ -0,0 +1,62 @@
+package org.unimelb.common.utils;
+
+/**
+ * Great-circle helpers shared by the nearby plant / garden queries.
+ * Uses the same earth radius as the haversine SQL in the mapper xml files.
+ */
+public final class GeoUtil {
+
+    public static final double EARTH_RADIUS_METERS = 6371000;
+
+    private GeoUtil() {
+    }
+
+    /**
+     * Haversine distance in meters between two lat/lon points.
+     */
+    public static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.pow(Math.sin(dLat / 2), 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.pow(Math.sin(dLon / 2), 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.sqrt(Math.min(1, a)));
+    }
+
+    /**
+     * Half-height in degrees of latitude of a circle of radiusMeters.
+     */
+    public static double latSpanDegrees(double radiusMeters) {
+        return Math.toDegrees(radiusMeters / EARTH_RADIUS_METERS);
+    }
+
+    /**
+     * Half-width in degrees of longitude of a circle of radiusMeters centered at latitude,
+     * or 180 when the circle covers a pole and therefore every longitude.
+     */
+    public static double lonSpanDegrees(double latitude, double radiusMeters) {
+        double angle = radiusMeters / EARTH_RADIUS_METERS;
+        if (Math.abs(latitude) + Math.toDegrees(angle) >= 90) {
+            return 180;
+        }
+        double sinLonSpan = Math.sin(angle) / Math.cos(Math.toRadians(latitude));
+        return sinLonSpan >= 1 ? 180 : Math.toDegrees(Math.asin(sinLonSpan));
+    }
+
+    /**
+     * Lat/lon box that contains every point within radiusMeters of the center,
+     * as {minLat, maxLat, minLon, maxLon}. The longitude range is widened to the
+     * whole globe when the circle covers a pole or crosses the antimeridian.
+     */
+    public static double[] boundingBox(double latitude, double longitude, double radiusMeters) {
+        double latSpan = latSpanDegrees(radiusMeters);
+        double lonSpan = lonSpanDegrees(latitude, radiusMeters);
+        double minLat = Math.max(-90, latitude - latSpan);
+        double maxLat = Math.min(90, latitude + latSpan);
+        double minLon = longitude - lonSpan;
+        double maxLon = longitude + lonSpan;
+        if (minLon < -180 || maxLon > 180) {
+            return new double[]{minLat, maxLat, -180, 180};
+        }
+        return new double[]{minLat, maxLat, minLon, maxLon};
+    }
+}
@@ -0,0 +1,256 @@
+package org.unimelb.common.utils;
+
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import org.springframework.http.MediaType;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Helpers for the image bytes stored with plants and users.
+ */
+public final class ImageUtil {
+
+    private ImageUtil() {
+    }
+
+    /**
+     * Guess the media type from the file signature, defaulting to application/octet-stream.
+     */
+    public static MediaType detectContentType(byte[] bytes) {
+        if (bytes == null || bytes.length < 4) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+        if ((bytes[0] & 0xFF) == 0xFF && (bytes[1] & 0xFF) == 0xD8) {
+            return MediaType.IMAGE_JPEG;
+        }
+        if ((bytes[0] & 0xFF) == 0x89 && bytes[1] == 'P' && bytes[2] == 'N' && bytes[3] == 'G') {
+            return MediaType.IMAGE_PNG;
+        }
+        if (bytes[0] == 'G' && bytes[1] == 'I' && bytes[2] == 'F') {
+            return MediaType.IMAGE_GIF;
+        }
+        if (bytes.length >= 12 && bytes[0] == 'R' && bytes[1] == 'I' && bytes[2] == 'F' && bytes[3] == 'F'
+                && bytes[8] == 'W' && bytes[9] == 'E' && bytes[10] == 'B' && bytes[11] == 'P') {
+            return MediaType.parseMediaType("image/webp");
+        }
+        return MediaType.APPLICATION_OCTET_STREAM;
+    }
+
+    /**
+     * Guess the media type from the first bytes of the buffer, the buffer position is not changed.
+     */
+    public static MediaType detectContentType(ByteBuffer buffer) {
+        byte[] head = new byte[Math.min(12, buffer.remaining())];
+        buffer.duplicate().get(head);
+        return detectContentType(head);
+    }
+
+    /**
+     * Decode image bytes, null when the format is not supported by ImageIO.
+     */
+    public static BufferedImage read(byte[] bytes) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(bytes));
+    }
+
+    public static BufferedImage read(ByteBuffer buffer) throws IOException {
+        return ImageIO.read(new ByteBufferBackedInputStream(buffer.duplicate()));
+    }
+
+    /**
+     * Scale so that the longer side is maxSide pixels, keeping the ratio. Images already small enough are not enlarged.
+     */
+    public static BufferedImage fit(BufferedImage image, int maxSide) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (Math.max(width, height) > maxSide) {
+            if (width >= height) {
+                height = Math.max(1, maxSide * height / width);
+                width = maxSide;
+            } else {
+                width = Math.max(1, maxSide * width / height);
+                height = maxSide;
+            }
+        }
+        return scale(halve(image, width, height), width, height);
+    }
+
+    /**
+     * Scale so that the shorter side is size pixels, then crop the centre square.
+     */
+    public static BufferedImage squareThumbnail(BufferedImage image, int size) {
+        // keep origin ratio
+        int newWidth, newHeight;
+        if (image.getWidth() > image.getHeight()) {
+            newWidth = size;
+            newHeight = size * image.getHeight() / image.getWidth();
+        } else {
+            newWidth = size * image.getWidth() / image.getHeight();
+            newHeight = size;
+        }
+        BufferedImage thumbnail = scale(image, newWidth, newHeight);
+
+        // crop to square
+        int x = 0;
+        int y = 0;
+        int cropSize = Math.min(newWidth, newHeight);
+        if (newWidth > newHeight) {
+            x = (newWidth - cropSize) / 2;
+        } else {
+            y = (newHeight - cropSize) / 2;
+        }
+        return thumbnail.getSubimage(x, y, cropSize, cropSize);
+    }
+
+    /**
+     * 64-bit difference hash: the image is shrunk to 9x8 grey pixels and each bit says whether a pixel
+     * is brighter than its right neighbour. Re-encoded, resized or slightly edited copies of a photo
+     * differ in only a few bits (compare with Long.bitCount(a ^ b)).
+     */
+    public static long dHash(BufferedImage image) {
+        BufferedImage small = scale(halve(image, 9, 8), 9, 8);
+
+        long hash = 0;
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                hash = (hash << 1) | (luminance(small.getRGB(x, y)) > luminance(small.getRGB(x + 1, y)) ? 1 : 0);
+            }
+        }
+        return hash;
+    }
+
+    private static double luminance(int rgb) {
+        return 0.299 * ((rgb >> 16) & 0xFF) + 0.587 * ((rgb >> 8) & 0xFF) + 0.114 * (rgb & 0xFF);
+    }
+
+    public static byte[] toJpeg(BufferedImage image) throws IOException {
+        ByteArrayOutputStream bs = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", bs);
+        return bs.toByteArray();
+    }
+
+    /**
+     * JPEG at the given quality (0..1). Only pixels are written, no EXIF or other metadata.
+     */
+    public static byte[] toJpeg(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality);
+        ByteArrayOutputStream bs = new ByteArrayOutputStream();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bs)) {
+            writer.setOutput(out);
+            // jpeg has no alpha channel, fit / scale already return RGB images
+            BufferedImage rgb = image.getType() == BufferedImage.TYPE_INT_RGB ? image : scale(image, image.getWidth(), image.getHeight());
+            writer.write(null, new IIOImage(rgb, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bs.toByteArray();
+    }
+
+    /**
+     * EXIF orientation (1-8) of JPEG bytes, 1 when there is none. ImageIO ignores it, so decoded
+     * phone photos may be sideways.
+     */
+    public static int exifOrientation(byte[] jpeg) {
+        if (jpeg == null || jpeg.length < 4 || (jpeg[0] & 0xFF) != 0xFF || (jpeg[1] & 0xFF) != 0xD8) {
+            return 1;
+        }
+        ByteBuffer buf = ByteBuffer.wrap(jpeg);
+        int pos = 2;
+        // walk the segments before the image data looking for APP1 "Exif"
+        while (pos + 4 <= jpeg.length && (jpeg[pos] & 0xFF) == 0xFF) {
+            int marker = jpeg[pos + 1] & 0xFF;
+            int length = ((jpeg[pos + 2] & 0xFF) << 8) | (jpeg[pos + 3] & 0xFF);
+            if (marker == 0xDA || length < 2) {
+                break;
+            }
+            int start = pos + 4;
+            // offsets inside the segment are untrusted: everything read must lie between the TIFF header and the segment end
+            int end = Math.min(start + length - 2, jpeg.length);
+            if (marker == 0xE1 && start + 14 <= end
+                    && jpeg[start] == 'E' && jpeg[start + 1] == 'x' && jpeg[start + 2] == 'i' && jpeg[start + 3] == 'f') {
+                int tiff = start + 6;
+                buf.order(jpeg[tiff] == 'I' ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+                long ifdOffset = buf.getInt(tiff + 4) & 0xFFFFFFFFL;
+                if (ifdOffset < 8 || ifdOffset + 2 > end - tiff) {
+                    return 1;
+                }
+                int ifd = tiff + (int) ifdOffset;
+                int entries = buf.getShort(ifd) & 0xFFFF;
+                for (int i = 0; i < entries && ifd + 2 + i * 12 + 12 <= end; i++) {
+                    int entry = ifd + 2 + i * 12;
+                    if ((buf.getShort(entry) & 0xFFFF) == 0x0112) {
+                        int orientation = buf.getShort(entry + 8) & 0xFFFF;
+                        return orientation >= 1 && orientation <= 8 ? orientation : 1;
+                    }
+                }
+                return 1;
+            }
+            pos = start + length - 2;
+        }
+        return 1;
+    }
+
+    /**
+     * Rotate as the EXIF orientation says (3, 6, 8); the rare mirrored orientations are left as they are.
+     */
+    public static BufferedImage applyOrientation(BufferedImage image, int orientation) {
+        int quarterTurns = switch (orientation) {
+            case 3 -> 2;
+            case 6 -> 1;
+            case 8 -> 3;
+            default -> 0;
+        };
+        if (quarterTurns == 0) {
+            return image;
+        }
+        int w = image.getWidth();
+        int h = image.getHeight();
+        boolean swap = quarterTurns % 2 == 1;
+        BufferedImage rotated = new BufferedImage(swap ? h : w, swap ? w : h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics2D = rotated.createGraphics();
+        AffineTransform transform = new AffineTransform();
+        transform.translate(rotated.getWidth() / 2.0, rotated.getHeight() / 2.0);
+        transform.quadrantRotate(quarterTurns);
+        transform.translate(-w / 2.0, -h / 2.0);
+        graphics2D.drawImage(image, transform, null);
+        graphics2D.dispose();
+        return rotated;
+    }
+
+    /**
+     * Halve (bilinear, so a 2x2 average) while the image is still at least twice the target size,
+     * a single bilinear step from a much larger image skips most source pixels and aliases.
+     */
+    private static BufferedImage halve(BufferedImage image, int width, int height) {
+        BufferedImage result = image;
+        while (result.getWidth() >= 2 * width && result.getHeight() >= 2 * height) {
+            result = scale(result, result.getWidth() / 2, result.getHeight() / 2);
+        }
+        return result;
+    }
+
+    private static BufferedImage scale(BufferedImage image, int width, int height) {
+        // jpeg has no alpha channel, draw onto RGB
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics2D = scaled.createGraphics();
+        graphics2D.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics2D.drawImage(image, 0, 0, width, height, null);
+        graphics2D.dispose();
+        return scaled;
+    }
+}
@@ -3,14 +3,25 @@ package org.unimelb.common.utils;
 import com.alibaba.fastjson2.JSON;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.unimelb.common.cache.LruTtlCache;
+import org.unimelb.security.vo.TokenClaims;
+import org.unimelb.user.entity.User;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.UUID;
 
@@ -18,13 +29,33 @@ import java.util.UUID;
 @Slf4j
 public class JwtUtil {
     
+    private static final String CLAIM_ROLE = "role";
+
+    private static final String CLAIM_VERSION = "ver";
+
     @Value("${plant.jwt.expire}")  // 有效期
     private long jwtExpire;
     
     @Value("${plant.jwt.secret}")  // 令牌秘钥
     private String jwtSecret;
 
-    public String createJwt(Object data) {
+    @Value("${plant.jwt.verified-cache-size:10000}")  // 已验证令牌缓存
+    private int verifiedCacheSize;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private SecretKey signingKey;
+
+    private JwtParser parser;
+
+    private LruTtlCache<TokenKey, TokenClaims> verified;
+
+    /**
+     * Token with only the user id (sub), role and token version (ver) claims, the user itself is
+     * looked up from UserPrincipalCache on each request.
+     */
+    public String createJwt(User user) {
 
         long currentTime = System.currentTimeMillis();
 
@@ -32,25 +63,34 @@ public class JwtUtil {
 
         JwtBuilder builder = Jwts.builder()
                 .setId(UUID.randomUUID() + "")
-                .setSubject(JSON.toJSONString(data))
+                .setSubject(String.valueOf(user.getUserId()))
+                .claim(CLAIM_ROLE, user.getUserType())
+                .claim(CLAIM_VERSION, user.getTokenVersion() != null ? user.getTokenVersion() : 0)
                 .setIssuer("system")
                 .setIssuedAt(new Date(currentTime))
                 .setExpiration(new Date(expTime))
-                .signWith(encodeSecret(jwtSecret), SignatureAlgorithm.HS256);
+                .signWith(signingKey, SignatureAlgorithm.HS256);
         return builder.compact();
     }
 
-    private SecretKey encodeSecret(String secret) {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    /**
+     * Signing key and parser are immutable and thread-safe, built once instead of per request.
+     */
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        verified = new LruTtlCache<>(verifiedCacheSize, jwtExpire * 60 * 1000);
+        if (meterRegistry != null) {
+            verified.bindTo(meterRegistry, "jwt");
+        }
     }
 
     public Boolean validJwt(String jwt) {
         try {
-            jwt = jwt.replace("Bearer ","");
-            Jwts.parserBuilder()
-                    .setSigningKey(encodeSecret(jwtSecret))
-                    .build()
-                    .parseClaimsJws(jwt);
+            parseJwt(jwt);
         } catch (Exception e) {
             log.error(e.getMessage());
             return false;
@@ -58,14 +98,52 @@ public class JwtUtil {
         return true;
     }
 
-    public <T> T parseJwt(String jwt, Class<T> clazz) {
+    /**
+     * Verify the token and read its claims. Tokens issued before the compact format carry the whole
+     * user as JSON in the subject, they are still accepted (as version 0) until they expire.
+     * Verified tokens are remembered by digest until they expire, so repeated requests with the
+     * same token skip the HMAC and the claims decoding.
+     */
+    public TokenClaims parseJwt(String jwt) {
         jwt = jwt.replace("Bearer ","");
-        Claims body = Jwts.parserBuilder()
-                .setSigningKey(encodeSecret(jwtSecret))
-                .build()
-                .parseClaimsJws(jwt)
-                .getBody();
-        return JSON.parseObject(body.getSubject(), clazz);
+        TokenKey key = TokenKey.of(jwt);
+        TokenClaims cached = verified.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims body = parser.parseClaimsJws(jwt).getBody();
+        TokenClaims claims;
+        String subject = body.getSubject();
+        if (subject != null && subject.startsWith("{")) {
+            User user = JSON.parseObject(subject, User.class);
+            claims = new TokenClaims(user.getUserId(), user.getUserType(), 0);
+        } else {
+            Integer version = body.get(CLAIM_VERSION, Integer.class);
+            claims = new TokenClaims(Long.valueOf(subject), body.get(CLAIM_ROLE, String.class), version != null ? version : 0);
+        }
+        Date expiration = body.getExpiration();
+        verified.put(key, claims, expiration != null ? expiration.getTime() - System.currentTimeMillis() : Long.MAX_VALUE);
+        return claims;
     }
 
-}
\ No newline at end of file
+    /**
+     * First 128 bits of the SHA-256 of the token, the cache does not keep the bearer tokens themselves.
+     */
+    private record TokenKey(long high, long low) {
+
+        private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        static TokenKey of(String jwt) {
+            byte[] digest = SHA256.get().digest(jwt.getBytes(StandardCharsets.US_ASCII));
+            ByteBuffer buf = ByteBuffer.wrap(digest);
+            return new TokenKey(buf.getLong(), buf.getLong());
+        }
+    }
+}
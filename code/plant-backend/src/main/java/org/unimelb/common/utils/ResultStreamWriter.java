@@ -0,0 +1,80 @@
+package org.unimelb.common.utils;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.unimelb.common.constant.ResultConstant;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes a successful Result whose data is a JSON array, one element at a time,
+ * so large lists never have to be held in memory before the first byte is sent.
+ * The output has the same shape as Result.success(list) once finish() was called. Without finish(), e.g. when the
+ * cursor fails midway, close() leaves the JSON open: the client gets a broken body, never a truncated list
+ * that looks complete.
+ */
+public class ResultStreamWriter implements Closeable {
+
+    private static final int FLUSH_EVERY = 200;
+
+    private final ObjectWriter writer;
+
+    private final JsonGenerator generator;
+
+    private int count;
+
+    private boolean finished;
+
+    public ResultStreamWriter(ObjectMapper objectMapper, OutputStream out) throws IOException {
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        // close() must not complete the array and object of an unfinished body
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+        generator.writeStartObject();
+        generator.writeNumberField("code", ResultConstant.SUCCESS.getCode());
+        generator.writeStringField("message", ResultConstant.SUCCESS.getMessage());
+        generator.writeArrayFieldStart("data");
+        // send the header right away so time to first byte does not depend on the query
+        generator.flush();
+    }
+
+    public void write(Object item) throws IOException {
+        writer.writeValue(generator, item);
+        if (++count % FLUSH_EVERY == 0) {
+            generator.flush();
+        }
+    }
+
+    /**
+     * write() for use as a Consumer, IOException is rethrown unchecked.
+     */
+    public void writeUnchecked(Object item) {
+        try {
+            write(item);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * End the data array and the Result, call after the last item.
+     */
+    public void finish() throws IOException {
+        if (!finished) {
+            generator.writeEndArray();
+            generator.writeEndObject();
+            finished = true;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
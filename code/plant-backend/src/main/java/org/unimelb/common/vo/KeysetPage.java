@@ -0,0 +1,26 @@
+package org.unimelb.common.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * One page of a keyset (seek) pagination.
+ * nextCursor is null on the last page, otherwise pass it back to get the following page.
+ * total is only set when the caller asked for it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeysetPage<T> implements Serializable {
+    private List<T> records;
+    private String nextCursor;
+    private Long total;
+
+    public KeysetPage(List<T> records, String nextCursor) {
+        this(records, nextCursor, null);
+    }
+}
@@ -1,9 +1,15 @@
 package org.unimelb.garden.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.unimelb.common.utils.ResultStreamWriter;
+import org.unimelb.common.vo.KeysetPage;
 import org.unimelb.common.vo.Result;
 import org.unimelb.garden.entity.Garden;
 import org.unimelb.garden.service.GardenService;
@@ -15,15 +21,42 @@ import java.util.List;
 @RequestMapping("/api/garden")
 public class GardenController {
 
+    /** upper bound for the limit of keyset pages */
+    private static final int MAX_PAGE_LIMIT = 500;
+
     @Autowired
     private GardenService gardenService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Operation(summary = "query all gardens")
     @GetMapping("/all")
     public Result<List<Garden>> getAllGardens() {
         return Result.success(gardenService.getAllGardens());
     }
 
+    @Operation(summary = "stream all gardens, same body as /all written while rows are read from a database cursor")
+    @GetMapping(value = "/all", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllGardens() {
+        StreamingResponseBody body = out -> {
+            try (ResultStreamWriter writer = new ResultStreamWriter(objectMapper, out)) {
+                gardenService.streamAllGardens(writer::writeUnchecked);
+                writer.finish();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @Operation(summary = "page all gardens in id order, pass nextCursor back as afterId")
+    @GetMapping(value = "/all", params = "limit")
+    public Result<KeysetPage<Garden>> pageAllGardens(
+            @RequestParam(name = "afterId", required = false) Long afterId,
+            @RequestParam("limit") int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_LIMIT));
+        return Result.success(gardenService.listGardensAfter(afterId, size));
+    }
+
 
     @Operation(summary = "Batch Add Gardens")
     @PostMapping("/batch")
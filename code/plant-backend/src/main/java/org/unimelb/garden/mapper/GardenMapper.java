@@ -3,6 +3,7 @@ package org.unimelb.garden.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 import org.unimelb.garden.entity.Garden;
 
 import java.util.List;
@@ -12,8 +13,20 @@ public interface GardenMapper extends BaseMapper<Garden> {
 
     List<Garden> selectNearBy(@Param("latitude") Double latitude,
                               @Param("longitude") Double longitude,
-                              @Param("radius") Integer radiusMeters);
+                              @Param("radius") Integer radiusMeters,
+                              @Param("minLat") Double minLat,
+                              @Param("maxLat") Double maxLat,
+                              @Param("minLon") Double minLon,
+                              @Param("maxLon") Double maxLon);
 
 
     int insertBatch(@Param("list") List<Garden> gardens);
+
+    /**
+     * Must be consumed inside a transaction, the cursor is closed with the session.
+     */
+    Cursor<Garden> streamAll();
+
+    List<Garden> selectAfter(@Param("afterId") Long afterId,
+                             @Param("limit") int limit);
 }
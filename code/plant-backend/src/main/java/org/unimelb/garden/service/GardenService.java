@@ -1,11 +1,13 @@
 package org.unimelb.garden.service;
 
 import com.baomidou.mybatisplus.extension.service.IService;
+import org.unimelb.common.vo.KeysetPage;
 import org.unimelb.common.vo.Result;
 import org.unimelb.garden.entity.Garden;
 import org.unimelb.plant.entity.Plant;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface GardenService {
 
@@ -15,6 +17,20 @@ public interface GardenService {
      */
     List<Garden> getAllGardens();
 
+    /**
+     * streamAllGardens, feeds every garden to the consumer while it is read from the database cursor
+     * @param consumer
+     */
+    void streamAllGardens(Consumer<Garden> consumer);
+
+    /**
+     * listGardensAfter, gardens with an id greater than afterId (all when null) in id order
+     * @param afterId
+     * @param limit
+     * @return KeysetPage<Garden>
+     */
+    KeysetPage<Garden> listGardensAfter(Long afterId, int limit);
+
     /**
      * addGarden
      * @param garden
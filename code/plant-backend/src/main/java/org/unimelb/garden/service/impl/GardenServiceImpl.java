@@ -2,13 +2,21 @@ package org.unimelb.garden.service.impl;
 
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import jakarta.annotation.Resource;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.unimelb.common.cache.ResponseCache;
+import org.unimelb.common.utils.GeoUtil;
+import org.unimelb.common.vo.KeysetPage;
 import org.unimelb.garden.entity.Garden;
 import org.unimelb.garden.mapper.GardenMapper;
 import org.unimelb.garden.service.GardenService;
 import org.unimelb.plant.entity.Plant;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 public class GardenServiceImpl implements GardenService {
@@ -16,19 +24,44 @@ public class GardenServiceImpl implements GardenService {
     @Resource
     private GardenMapper gardenMapper;
 
+    @Resource
+    private ResponseCache responseCache;
+
     @Override
     public List<Garden> getAllGardens() {
         return gardenMapper.selectList(Wrappers.lambdaQuery());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllGardens(Consumer<Garden> consumer) {
+        // the transaction keeps the session (and the cursor) open, and lets the postgres driver honour fetchSize
+        try (Cursor<Garden> cursor = gardenMapper.streamAll()) {
+            cursor.forEach(consumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public KeysetPage<Garden> listGardensAfter(Long afterId, int limit) {
+        List<Garden> list = gardenMapper.selectAfter(afterId, limit);
+        String nextCursor = list.size() < limit ? null : String.valueOf(list.get(list.size() - 1).getGardenId());
+        return new KeysetPage<>(list, nextCursor);
+    }
+
     @Override
     public Boolean addGarden(Garden garden) {
-        return gardenMapper.insert(garden) > 0;
+        boolean ok = gardenMapper.insert(garden) > 0;
+        responseCache.invalidate(ResponseCache.GARDENS_ALL);
+        return ok;
     }
 
     @Override
     public Boolean batchAddGardens(List<Garden> gardenList) {
-        return gardenMapper.insertBatch(gardenList) > 0;
+        boolean ok = gardenMapper.insertBatch(gardenList) > 0;
+        responseCache.invalidate(ResponseCache.GARDENS_ALL);
+        return ok;
     }
 
     @Override
@@ -54,7 +87,8 @@ public class GardenServiceImpl implements GardenService {
         if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
             throw new IllegalArgumentException("illegal longitude or latitude");
         }
-        return gardenMapper.selectNearBy(latitude, longitude, radius);
+        double[] box = GeoUtil.boundingBox(latitude, longitude, radius);
+        return gardenMapper.selectNearBy(latitude, longitude, radius, box[0], box[1], box[2], box[3]);
     }
 
     @Override
@@ -0,0 +1,79 @@
+package org.unimelb.plant.cache;
+
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Resource;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.unimelb.common.cache.LruTtlCache;
+import org.unimelb.plant.entity.UserPlantLike;
+import org.unimelb.plant.mapper.UserPlantLikeMapper;
+
+import java.util.List;
+
+/**
+ * userId -> ids of the plants the user liked, as a compressed bitmap, so isFavourite is a constant-time lookup.
+ * Cached bitmaps are only read, never modified: a like change drops the user's entry once its transaction commits.
+ */
+@Component
+public class LikedPlantsCache {
+
+    private static final Roaring64Bitmap EMPTY = new Roaring64Bitmap();
+
+    @Resource
+    private UserPlantLikeMapper userPlantLikeMapper;
+
+    private final LruTtlCache<Long, Roaring64Bitmap> cache;
+
+    public LikedPlantsCache(@Value("${plant.cache.liked-plants.max-size:5000}") int maxSize,
+                            @Value("${plant.cache.liked-plants.ttl-seconds:600}") long ttlSeconds,
+                            MeterRegistry meterRegistry) {
+        this.cache = new LruTtlCache<>(maxSize, ttlSeconds * 1000);
+        this.cache.bindTo(meterRegistry, "liked-plants");
+    }
+
+    /**
+     * Plants liked by the user, must not be modified by the caller.
+     */
+    public Roaring64Bitmap getLikedPlants(Long userId) {
+        if (userId == null) {
+            return EMPTY;
+        }
+        Roaring64Bitmap liked = cache.get(userId);
+        if (liked != null) {
+            return liked;
+        }
+        List<Object> plantIds = userPlantLikeMapper.selectObjs(
+                Wrappers.<UserPlantLike>lambdaQuery()
+                        .select(UserPlantLike::getPlantId)
+                        .eq(UserPlantLike::getUserId, userId)
+        );
+        liked = new Roaring64Bitmap();
+        for (Object plantId : plantIds) {
+            liked.addLong(((Number) plantId).longValue());
+        }
+        liked.runOptimize();
+        cache.put(userId, liked);
+        return liked;
+    }
+
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // invalidating before commit would let a concurrent reader cache the old likes again
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(userId);
+                }
+            });
+        } else {
+            cache.invalidate(userId);
+        }
+    }
+}
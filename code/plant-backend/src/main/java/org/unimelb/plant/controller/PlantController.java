@@ -1,30 +1,60 @@
 package org.unimelb.plant.controller;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import org.springframework.beans.BeanUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.annotation.Resource;
 import org.unimelb.common.context.UserContext;
+import org.unimelb.common.storage.BlobStore;
+import org.unimelb.common.utils.ImageUtil;
+import org.unimelb.common.utils.ResultStreamWriter;
+import org.unimelb.common.vo.KeysetPage;
 import org.unimelb.common.vo.Result;
 import org.unimelb.garden.entity.Garden;
 import org.unimelb.plant.entity.Plant;
+import org.unimelb.plant.entity.PlantImageMeta;
 import org.unimelb.plant.entity.PlantVO;
 import org.unimelb.plant.service.PlantService;
+import org.unimelb.plant.vo.PlantLikeState;
+import org.unimelb.plant.vo.PlantQuery;
 
+import java.io.IOException;
+import java.nio.channels.Channels;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/plants")
 public class PlantController {
 
+    /** upper bound for the limit of keyset pages */
+    private static final int MAX_PAGE_LIMIT = 500;
+
     @Resource
     private PlantService plantService;
 
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Resource
+    private BlobStore blobStore;
+
+    @Value("${plant.image.cache-max-age-seconds:86400}")
+    private long imageMaxAgeSeconds;
+
     @Operation(summary = "Search plants by User Id")
     @GetMapping("/by-user")
     public Result<List<Plant>> listByUser() {
@@ -58,8 +88,47 @@ public class PlantController {
         return Result.success(voList);
     }
 
+    /**
+     * Same body as /all, written to the response while the rows are read from a database cursor.
+     * A failure midway is rethrown and aborts the response, the JSON is left unterminated.
+     * GET /api/plants/all?stream=true
+     */
+    @Operation(summary = "Stream All Plants")
+    @GetMapping(value = "/all", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllPlants() {
+        Long userId = UserContext.getCurrentUserId();
+        StreamingResponseBody body = out -> {
+            try (ResultStreamWriter writer = new ResultStreamWriter(objectMapper, out)) {
+                plantService.streamAllPlants(userId, writer::writeUnchecked);
+                writer.finish();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Keyset pagination over all plants in id order, pass nextCursor back as afterId.
+     * GET /api/plants/all?limit=100&afterId=123
+     */
+    @Operation(summary = "Page All Plants")
+    @GetMapping(value = "/all", params = "limit")
+    public Result<KeysetPage<PlantVO>> pageAllPlants(
+            @RequestParam(name = "afterId", required = false) Long afterId,
+            @RequestParam("limit") int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_LIMIT));
+        return Result.success(plantService.listPlantsAfter(afterId, size));
+    }
 
 
+    /**
+     * Newest plants first, filtered by PlantQuery. Pass nextCursor back as cursor for the next page.
+     * GET /api/plants/page?pageSize=20&cursor=...&withTotal=true
+     */
+    @Operation(summary = "Page plants, newest first")
+    @GetMapping("/page")
+    public Result<KeysetPage<Plant>> pagePlants(PlantQuery query) {
+        return Result.success(plantService.seekPlants(query));
+    }
 
     @Operation(summary = "Search plants by Garden Id")
     @GetMapping("/by-garden")
@@ -74,8 +143,57 @@ public class PlantController {
     @Operation(summary = "Get plants by id")
     @GetMapping("/{id}")
     public Result<Plant> getPlant(@PathVariable Long id) {
-        Optional<Plant> plant = plantService.getOptById(id);
-        return plant.map(Result::success).orElseGet(() -> Result.fail(500, "plant not found"));
+        Plant plant = plantService.getPlant(id);
+        return plant != null ? Result.success(plant) : Result.fail(500, "plant not found");
+    }
+
+    /**
+     * Raw image bytes with ETag / Last-Modified validators.
+     * Conditional requests are answered with 304 before the bytes are read from the database.
+     * size (longer side in px) selects the smallest rendition that covers it, omit it for the original.
+     * Originals in the blob store are streamed from the file through a small buffer, the file is never read whole;
+     * the servlet stream is wrapped by Channels.newChannel, so this is a buffered copy, not sendfile.
+     */
+    @Operation(summary = "Get plant image")
+    @GetMapping("/{id}/image")
+    public ResponseEntity<StreamingResponseBody> getPlantImage(@PathVariable Long id,
+                                                               @RequestParam(name = "size", required = false) Integer size,
+                                                               WebRequest request) throws IOException {
+        PlantImageMeta meta = plantService.getPlantImageMeta(id, size);
+        if (meta == null) {
+            return ResponseEntity.notFound().build();
+        }
+        String etag = "\"" + meta.getHash() + "\"";
+        long lastModified = meta.getLastModified() == null ? -1
+                : meta.getLastModified().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        CacheControl cacheControl = CacheControl.maxAge(imageMaxAgeSeconds, TimeUnit.SECONDS).cachePrivate();
+        if (request.checkNotModified(etag, lastModified)) {
+            // ETag and Last-Modified are already set by checkNotModified
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+
+        if (meta.getBlobHash() != null) {
+            String blobHash = meta.getBlobHash();
+            return ResponseEntity.ok()
+                    .contentType(ImageUtil.detectContentType(blobStore.readHead(blobHash, 12)))
+                    .contentLength(blobStore.size(blobHash))
+                    .eTag(etag)
+                    .lastModified(lastModified)
+                    .cacheControl(cacheControl)
+                    .body(out -> blobStore.transferTo(blobHash, Channels.newChannel(out)));
+        }
+
+        byte[] image = plantService.getPlantImage(id, meta.getSize());
+        if (image == null || image.length == 0) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(ImageUtil.detectContentType(image))
+                .contentLength(image.length)
+                .eTag(etag)
+                .lastModified(lastModified)
+                .cacheControl(cacheControl)
+                .body(out -> out.write(image));
     }
 
     @Operation(summary = "Get nearby plants")
@@ -110,16 +228,29 @@ public class PlantController {
     @PostMapping("/like")
     public Result<?> like(@RequestParam Long plantId) {
         Long userId = UserContext.getCurrentUserId();
-        boolean ok = plantService.like(userId, plantId);
-        return ok ? Result.success("liked") : Result.fail(500, "like failed");
+        boolean added = plantService.like(userId, plantId);
+        // 幂等：已点赞也返回成功
+        return Result.success(added ? "liked" : "already liked");
     }
 
     @Operation(summary = "Unlike a plant")
     @PostMapping("/unlike")
     public Result<?> unlike(@RequestParam Long plantId) {
         Long userId = UserContext.getCurrentUserId();
-        boolean ok = plantService.unlike(userId, plantId);
-        return ok ? Result.success("unliked") : Result.fail(500, "unlike failed");
+        boolean removed = plantService.unlike(userId, plantId);
+        // 幂等：不存在也返回成功
+        return Result.success(removed ? "unliked" : "not liked");
+    }
+
+    /**
+     * Like / unlike several plants in one request, e.g. [{"plantId":1,"liked":true},{"plantId":2,"liked":false}].
+     * POST /api/plants/likes:batch
+     */
+    @Operation(summary = "Like or unlike plants in one batch")
+    @PostMapping("/likes:batch")
+    public Result<List<PlantLikeState>> likeBatch(@RequestBody List<PlantLikeState> operations) {
+        Long userId = UserContext.getCurrentUserId();
+        return Result.success(plantService.likeBatch(userId, operations));
     }
 
 
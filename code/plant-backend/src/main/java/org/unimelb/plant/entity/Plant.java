@@ -1,6 +1,7 @@
 package org.unimelb.plant.entity;
 
 import com.baomidou.mybatisplus.annotation.TableField;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 import com.baomidou.mybatisplus.annotation.TableId;
 import com.baomidou.mybatisplus.annotation.TableName;
@@ -19,8 +20,13 @@ public class Plant implements Serializable {
 
     private String name;
 
+    /** accepted on upload, never written back: clients load it from imageUrl */
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private byte[] image;
 
+    /** key of the image in the BlobStore, image stays null for rows written since the blob store */
+    private String imageHash;
+
     private String description;
 
     private Double latitude;
@@ -37,10 +43,21 @@ public class Plant implements Serializable {
 
     private Boolean shareable;
 
+    /** number of likes, maintained together with user_plant_like (UserPlantLikeMapper.xml), ignored on upload */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Integer likeCount;
+
     @TableField(exist = false)
     private Boolean isFavourite;
     
     @TableField(exist = false)
     private String discoveredBy;
 
+    /**
+     * Where the client fetches the photo (GET /api/plants/{id}/image), so the JSON never carries the bytes.
+     */
+    public String getImageUrl() {
+        return plantId == null ? null : "/api/plants/" + plantId + "/image";
+    }
+
 }
@@ -0,0 +1,27 @@
+package org.unimelb.plant.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Validators for GET /api/plants/{id}/image, read without loading the image bytes.
+ */
+@Data
+public class PlantImageMeta implements Serializable {
+
+    private Long plantId;
+
+    /** rendition size, null for the original upload */
+    private Integer size;
+
+    /** content hash used as the ETag: the blob key, or md5 of inline bytes */
+    private String hash;
+
+    /** BlobStore key when the bytes are in the blob store rather than inline */
+    private String blobHash;
+
+    private LocalDateTime lastModified;
+
+}
@@ -0,0 +1,24 @@
+package org.unimelb.plant.entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Downscaled JPEG copy of a plant photo, the longer side is size pixels.
+ */
+@Data
+@TableName("plant_image_rendition")
+public class PlantImageRendition implements Serializable {
+
+    private Long plantId;
+
+    private Integer size;
+
+    private byte[] image;
+
+    private LocalDateTime createdAt;
+
+}
@@ -24,4 +24,13 @@ public class PlantVO implements Serializable {
     
     private String discoveredBy;
 
+    private Integer likeCount;
+
+    private Boolean isFavourite;
+
+    /** same as Plant.getImageUrl() */
+    public String getImageUrl() {
+        return plantId == null ? null : "/api/plants/" + plantId + "/image";
+    }
+
 }
@@ -0,0 +1,131 @@
+package org.unimelb.plant.image;
+
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.unimelb.common.storage.BlobStore;
+import org.unimelb.common.utils.ImageUtil;
+import org.unimelb.plant.entity.Plant;
+import org.unimelb.plant.entity.PlantImageRendition;
+import org.unimelb.plant.mapper.PlantImageRenditionMapper;
+import org.unimelb.plant.mapper.PlantMapper;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the downscaled renditions of plant photos (plant_image_rendition) on a small bounded pool.
+ * Tasks only carry the plant id and reload the original, so a full queue never holds image bytes.
+ * When the queue is full the task is dropped: the original is served until the rendition is requested again.
+ */
+@Slf4j
+@Component
+public class PlantRenditionGenerator {
+
+    @Resource
+    private PlantMapper plantMapper;
+
+    @Resource
+    private PlantImageRenditionMapper renditionMapper;
+
+    @Resource
+    private BlobStore blobStore;
+
+    /** ascending */
+    private final List<Integer> sizes;
+
+    private final ThreadPoolExecutor executor;
+
+    /** plants queued or being processed, so repeated requests do not queue the same work */
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    public PlantRenditionGenerator(@Value("${plant.image.rendition-sizes:64,256,1024}") List<Integer> sizes,
+                                   @Value("${plant.image.rendition-threads:2}") int threads,
+                                   @Value("${plant.image.rendition-queue-size:100}") int queueSize) {
+        this.sizes = sizes.stream().sorted().distinct().toList();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), new CustomizableThreadFactory("plant-rendition-"));
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Smallest rendition size that covers the requested size, null when only the original is large enough.
+     */
+    public Integer renditionSize(int requested) {
+        for (Integer size : sizes) {
+            if (size >= requested) {
+                return size;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Queue generation of every rendition of the plant's photo.
+     */
+    public void submit(Long plantId) {
+        if (plantId == null || !pending.add(plantId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(plantId);
+                } catch (Exception e) {
+                    log.error("failed to generate renditions for plant {}: {}", plantId, e.getMessage());
+                } finally {
+                    pending.remove(plantId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(plantId);
+            log.warn("rendition queue full, plant {} skipped", plantId);
+        }
+    }
+
+    private void generate(Long plantId) throws Exception {
+        Plant plant = plantMapper.selectOne(
+                Wrappers.<Plant>lambdaQuery()
+                        .select(Plant::getPlantId, Plant::getImage, Plant::getImageHash)
+                        .eq(Plant::getPlantId, plantId)
+        );
+        if (plant == null) {
+            return;
+        }
+        BufferedImage original;
+        if (plant.getImageHash() != null) {
+            original = ImageUtil.read(blobStore.read(plant.getImageHash()));
+        } else if (plant.getImage() != null && plant.getImage().length > 0) {
+            original = ImageUtil.read(plant.getImage());
+        } else {
+            return;
+        }
+        if (original == null) {
+            log.warn("plant {} image format not supported, no renditions", plantId);
+            return;
+        }
+        for (Integer size : sizes) {
+            PlantImageRendition rendition = new PlantImageRendition();
+            rendition.setPlantId(plantId);
+            rendition.setSize(size);
+            rendition.setImage(ImageUtil.toJpeg(ImageUtil.fit(original, size)));
+            renditionMapper.upsert(rendition);
+        }
+        log.debug("renditions {} generated for plant {}", sizes, plantId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
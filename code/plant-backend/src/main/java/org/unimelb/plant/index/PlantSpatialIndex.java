@@ -0,0 +1,219 @@
+package org.unimelb.plant.index;
+
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.unimelb.common.utils.GeoUtil;
+import org.unimelb.plant.entity.Plant;
+import org.unimelb.plant.mapper.PlantMapper;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory grid index of plant id -> lat/lon.
+ * Loaded once the application is ready and kept current by PlantServiceImpl.addPlant,
+ * so nearby queries only hit the database for the rows they return.
+ */
+@Slf4j
+@Component
+public class PlantSpatialIndex {
+
+    /** grid cell size in degrees, roughly 1.1 km of latitude */
+    private static final double CELL_DEGREES = 0.01;
+
+    private static final int LON_CELLS = (int) Math.round(360 / CELL_DEGREES);
+
+    @Resource
+    private PlantMapper plantMapper;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Map<Long, List<Point>> cells = new HashMap<>();
+
+    private int size;
+
+    private volatile boolean ready;
+
+    /** plants added while load() reads the table, replayed into the rebuilt index; null when not loading */
+    private List<Point> addedDuringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        beginRebuild();
+        try {
+            List<Plant> plants = plantMapper.selectList(
+                    Wrappers.<Plant>lambdaQuery()
+                            .select(Plant::getPlantId, Plant::getLatitude, Plant::getLongitude)
+                            .isNotNull(Plant::getLatitude)
+                            .isNotNull(Plant::getLongitude)
+            );
+            rebuild(plants);
+            log.info("plant spatial index loaded, {} plants", size);
+        } catch (Exception e) {
+            // nearby queries fall back to the SQL path until the index is loaded
+            log.error("failed to load plant spatial index: {}", e.getMessage());
+            lock.writeLock().lock();
+            try {
+                addedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * From here until the next rebuild, added plants are also recorded for the rebuilt index.
+     */
+    void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            addedDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the whole index with the given plants. Plants add()ed since load() started reading
+     * are kept even when the rows were read before they were inserted.
+     */
+    public void rebuild(List<Plant> plants) {
+        Map<Long, List<Point>> newCells = new HashMap<>();
+        Set<Long> ids = new HashSet<>();
+        int count = 0;
+        for (Plant p : plants) {
+            if (isIndexable(p) && ids.add(p.getPlantId())) {
+                Point point = new Point(p.getPlantId(), p.getLatitude(), p.getLongitude());
+                newCells.computeIfAbsent(cellKey(point.latitude(), point.longitude()), k -> new ArrayList<>()).add(point);
+                count++;
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            if (addedDuringRebuild != null) {
+                for (Point point : addedDuringRebuild) {
+                    if (ids.add(point.plantId())) {
+                        newCells.computeIfAbsent(cellKey(point.latitude(), point.longitude()), k -> new ArrayList<>()).add(point);
+                        count++;
+                    }
+                }
+                addedDuringRebuild = null;
+            }
+            cells = newCells;
+            size = count;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add a newly saved plant. Plants without coordinates are ignored.
+     */
+    public void add(Plant plant) {
+        if (!isIndexable(plant)) {
+            return;
+        }
+        Point point = new Point(plant.getPlantId(), plant.getLatitude(), plant.getLongitude());
+        lock.writeLock().lock();
+        try {
+            cells.computeIfAbsent(cellKey(point.latitude(), point.longitude()), k -> new ArrayList<>()).add(point);
+            size++;
+            if (addedDuringRebuild != null) {
+                addedDuringRebuild.add(point);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Ids of plants within radiusMeters of the given point, nearest first, at most limit ids.
+     */
+    public List<Long> searchNearBy(double latitude, double longitude, int radiusMeters, int limit) {
+        double latSpan = GeoUtil.latSpanDegrees(radiusMeters);
+        double lonSpan = GeoUtil.lonSpanDegrees(latitude, radiusMeters);
+        int minLatIdx = latIndex(Math.max(-90, latitude - latSpan));
+        int maxLatIdx = latIndex(Math.min(90, latitude + latSpan));
+        // longitude cells wrap around the antimeridian
+        int lonCellCount = lonSpan >= 180 ? LON_CELLS : Math.min(LON_CELLS, (int) Math.ceil(2 * lonSpan / CELL_DEGREES) + 1);
+        int firstLonIdx = lonSpan >= 180 ? 0 : lonIndex(longitude - lonSpan);
+
+        List<Hit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            long cellsToScan = (long) (maxLatIdx - minLatIdx + 1) * lonCellCount;
+            if (cellsToScan > cells.size()) {
+                // large radius: cheaper to walk the populated cells than the grid
+                for (List<Point> points : cells.values()) {
+                    collect(points, latitude, longitude, radiusMeters, hits);
+                }
+            } else {
+                for (int latIdx = minLatIdx; latIdx <= maxLatIdx; latIdx++) {
+                    for (int i = 0; i < lonCellCount; i++) {
+                        int lonIdx = Math.floorMod(firstLonIdx + i, LON_CELLS);
+                        List<Point> points = cells.get((long) latIdx * LON_CELLS + lonIdx);
+                        if (points != null) {
+                            collect(points, latitude, longitude, radiusMeters, hits);
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hits.sort(Comparator.comparingDouble(Hit::distance));
+        return hits.stream().limit(limit).map(Hit::plantId).toList();
+    }
+
+    private void collect(List<Point> points, double latitude, double longitude, int radiusMeters, List<Hit> hits) {
+        for (Point p : points) {
+            double distance = GeoUtil.distanceMeters(latitude, longitude, p.latitude(), p.longitude());
+            if (distance <= radiusMeters) {
+                hits.add(new Hit(p.plantId(), distance));
+            }
+        }
+    }
+
+    private static boolean isIndexable(Plant plant) {
+        return plant != null && plant.getPlantId() != null
+                && plant.getLatitude() != null && plant.getLongitude() != null;
+    }
+
+    private static long cellKey(double latitude, double longitude) {
+        return (long) latIndex(latitude) * LON_CELLS + lonIndex(longitude);
+    }
+
+    private static int latIndex(double latitude) {
+        return (int) Math.floor((latitude + 90) / CELL_DEGREES);
+    }
+
+    private static int lonIndex(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / CELL_DEGREES), LON_CELLS);
+    }
+
+    private record Point(long plantId, double latitude, double longitude) {
+    }
+
+    private record Hit(long plantId, double distance) {
+    }
+}
@@ -0,0 +1,22 @@
+package org.unimelb.plant.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.unimelb.plant.entity.PlantImageMeta;
+import org.unimelb.plant.entity.PlantImageRendition;
+
+@Mapper
+public interface PlantImageRenditionMapper extends BaseMapper<PlantImageRendition> {
+
+    /**
+     * Insert or replace the rendition of one size.
+     */
+    int upsert(PlantImageRendition rendition);
+
+    /**
+     * Null when the rendition has not been generated.
+     */
+    PlantImageMeta selectMeta(@Param("plantId") Long plantId,
+                              @Param("size") Integer size);
+}
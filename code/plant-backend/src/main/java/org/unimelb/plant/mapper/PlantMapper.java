@@ -6,8 +6,11 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
 import org.unimelb.garden.entity.Garden;
 import org.unimelb.plant.entity.Plant;
+import org.unimelb.plant.entity.PlantImageMeta;
+import org.unimelb.plant.entity.PlantVO;
 
 import java.util.List;
 
@@ -15,5 +18,27 @@ import java.util.List;
 public interface PlantMapper extends BaseMapper<Plant> {
     List<Plant> selectNearBy(@Param("latitude") Double latitude,
                               @Param("longitude") Double longitude,
-                              @Param("radius") Integer radiusMeters);
+                              @Param("radius") Integer radiusMeters,
+                              @Param("minLat") Double minLat,
+                              @Param("maxLat") Double maxLat,
+                              @Param("minLon") Double minLon,
+                              @Param("maxLon") Double maxLon);
+
+    /**
+     * Must be consumed inside a transaction, the cursor is closed with the session.
+     */
+    Cursor<PlantVO> streamAll();
+
+    List<PlantVO> selectAfter(@Param("afterId") Long afterId,
+                              @Param("limit") int limit);
+
+    /**
+     * Row count estimate from pg_class, no table scan.
+     */
+    Long estimateCount();
+
+    /**
+     * Null when the plant does not exist or has no image.
+     */
+    PlantImageMeta selectImageMeta(@Param("plantId") Long plantId);
 }
@@ -2,8 +2,24 @@ package org.unimelb.plant.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.unimelb.plant.entity.UserPlantLike;
 
+import java.util.Collection;
+
 @Mapper
 public interface UserPlantLikeMapper extends BaseMapper<UserPlantLike> {
+
+    /**
+     * Like every plant in one statement, plants already liked are skipped (uk_user_plant_like).
+     * plant.like_count is incremented for the new likes only. Returns the number of new likes.
+     */
+    int insertIgnore(@Param("userId") Long userId,
+                     @Param("plantIds") Collection<Long> plantIds);
+
+    /**
+     * Remove the likes and decrement plant.like_count of the plants that were liked.
+     */
+    int deleteByPlantIds(@Param("userId") Long userId,
+                         @Param("plantIds") Collection<Long> plantIds);
 }
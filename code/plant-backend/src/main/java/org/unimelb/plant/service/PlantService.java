@@ -2,33 +2,82 @@ package org.unimelb.plant.service;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.IService;
+import org.unimelb.common.vo.KeysetPage;
 import org.unimelb.common.vo.Result;
 import org.unimelb.garden.entity.Garden;
 import org.unimelb.plant.entity.Plant;
+import org.unimelb.plant.entity.PlantImageMeta;
+import org.unimelb.plant.entity.PlantVO;
+import org.unimelb.plant.vo.PlantLikeState;
 import org.unimelb.plant.vo.PlantQuery;
 import org.unimelb.user.entity.User;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface PlantService extends IService<Plant> {
     public Page<Plant> pagePlants(PlantQuery query);
 
+    /**
+     * Newest plants first, keyset-paginated on (created_at, plant_id) so every page costs the same.
+     */
+    KeysetPage<Plant> seekPlants(PlantQuery query);
+
     List<Plant> getAllPlants();
 
+    /**
+     * Feed every plant to the consumer while it is read from the database cursor.
+     * userId is passed explicitly since the stream is written outside the request thread.
+     */
+    void streamAllPlants(Long userId, Consumer<PlantVO> consumer);
+
+    /**
+     * Plants with an id greater than afterId (all when null), in id order.
+     */
+    KeysetPage<PlantVO> listPlantsAfter(Long afterId, int limit);
+
     List<Plant> listPlantsByUser();
 
     List<Plant> listLikedPlantsByUser();
 
     List<Plant> listPlantsByGarden(Long gardenId);
 
+    /**
+     * A plant without its image bytes, the image is served by GET /api/plants/{id}/image.
+     */
+    Plant getPlant(Long plantId);
+
+    /**
+     * Inline image bytes of the original (size null) or of one rendition.
+     * Originals in the blob store are read through PlantImageMeta.blobHash instead.
+     */
+    byte[] getPlantImage(Long plantId, Integer size);
+
+    /**
+     * Validators of the image to serve for the requested size (null for the original).
+     * Falls back to the original while the rendition is not generated yet.
+     */
+    PlantImageMeta getPlantImageMeta(Long plantId, Integer size);
+
     Plant addPlant(Plant plant);
 
     List<Plant> getNearByPlants(Double latitude, Double longitude, int radius);
 
     boolean isLiked(Long userId, Long plantId);
 
+    /**
+     * Idempotent, true when the plant was not liked before.
+     */
     boolean like(Long userId, Long plantId);
 
+    /**
+     * Idempotent, true when a like was actually removed.
+     */
     boolean unlike(Long userId, Long plantId);
 
+    /**
+     * Apply like / unlike operations in one transaction (one INSERT and one DELETE) and return the final state per plant.
+     */
+    List<PlantLikeState> likeBatch(Long userId, List<PlantLikeState> operations);
+
 }
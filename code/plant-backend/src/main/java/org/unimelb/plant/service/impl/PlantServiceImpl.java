@@ -1,32 +1,74 @@
 package org.unimelb.plant.service.impl;
 
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import jakarta.annotation.Resource;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import org.unimelb.common.constant.ResultConstant;
+import org.unimelb.common.cache.ResponseCache;
 import org.unimelb.common.context.UserContext;
+import org.unimelb.common.storage.BlobStore;
+import org.unimelb.common.utils.GeoUtil;
 import org.unimelb.common.utils.JwtUtil;
+import org.unimelb.common.vo.KeysetPage;
 import org.unimelb.common.vo.Result;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.unimelb.plant.cache.LikedPlantsCache;
 import org.unimelb.plant.entity.Plant;
+import org.unimelb.plant.entity.PlantImageMeta;
+import org.unimelb.plant.entity.PlantImageRendition;
+import org.unimelb.plant.entity.PlantVO;
 import org.unimelb.plant.entity.UserPlantLike;
+import org.unimelb.plant.image.PlantRenditionGenerator;
+import org.unimelb.plant.index.PlantSpatialIndex;
+import org.unimelb.plant.mapper.PlantImageRenditionMapper;
 import org.unimelb.plant.mapper.PlantMapper;
 import org.unimelb.plant.mapper.UserPlantLikeMapper;
 import org.unimelb.plant.service.PlantService;
+import org.unimelb.plant.vo.PlantLikeState;
 import org.unimelb.plant.vo.PlantQuery;
+import org.unimelb.search.index.SearchIndex;
+import org.unimelb.user.cache.UsernameCache;
 import org.unimelb.user.entity.User;
 import org.unimelb.user.mapper.UserMapper;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
 public class PlantServiceImpl extends ServiceImpl<PlantMapper, Plant> implements PlantService {
 
+    /** same cap as the LIMIT in PlantMapper.selectNearBy */
+    private static final int NEARBY_LIMIT = 200;
+
+    /** largest page of seekPlants */
+    private static final int SEEK_PAGE_LIMIT = 100;
+
+    /** largest number of operations accepted by likeBatch */
+    private static final int LIKE_BATCH_LIMIT = 200;
+
     @Autowired
     private JwtUtil jwtUtil;
 
@@ -39,30 +81,103 @@ public class PlantServiceImpl extends ServiceImpl<PlantMapper, Plant> implements
     @Autowired
     private UserMapper userMapper;
 
+    @Autowired
+    private PlantSpatialIndex plantSpatialIndex;
+
+    @Autowired
+    private UsernameCache usernameCache;
+
+    @Autowired
+    private PlantImageRenditionMapper renditionMapper;
+
+    @Autowired
+    private PlantRenditionGenerator renditionGenerator;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private LikedPlantsCache likedPlantsCache;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private SearchIndex searchIndex;
+
     @Override
     public Page<Plant> pagePlants(PlantQuery query) {
 
         Page<Plant> page = new Page<>(query.getPageNo(), query.getPageSize());
+        // the extra COUNT only runs when the caller asks for the total
+        page.setSearchCount(Boolean.TRUE.equals(query.getWithTotal()));
 
-
-        QueryWrapper<Plant> qw = new QueryWrapper<>();
-        qw.lambda()
-                .eq(query.getPlantId() != null, Plant::getPlantId, query.getPlantId())
-                .eq(query.getUserId() != null, Plant::getUserId, query.getUserId())
-                .like(query.getImage() != null, Plant::getImage, query.getImage())
-                .like(StringUtils.hasText(query.getDescription()), Plant::getDescription, query.getDescription())
-                .eq(StringUtils.hasText(query.getScientificName()), Plant::getScientificName, query.getScientificName())
-                .eq(query.getLatitude() != null, Plant::getLatitude, query.getLatitude())
-                .eq(query.getLongitude() != null, Plant::getLongitude, query.getLongitude())
-                .orderByDesc(Plant::getCreatedAt);
-
+        LambdaQueryWrapper<Plant> qw = filter(listColumns(), query)
+                .orderByDesc(Plant::getCreatedAt)
+                .orderByDesc(Plant::getPlantId);
 
         return this.baseMapper.selectPage(page, qw);
     }
 
+    @Override
+    public KeysetPage<Plant> seekPlants(PlantQuery query) {
+        int limit = Math.max(1, Math.min(query.getPageSize(), SEEK_PAGE_LIMIT));
+
+        LambdaQueryWrapper<Plant> qw = filter(listColumns(), query);
+        if (StringUtils.hasText(query.getCursor())) {
+            SeekCursor cursor = decodeCursor(query.getCursor());
+            // row comparison, walks idx_plant_created_at_id (db/migration/006) from the cursor: no OFFSET
+            qw.apply("(created_at, plant_id) < ({0}, {1})", cursor.createdAt(), cursor.plantId());
+        }
+        qw.orderByDesc(Plant::getCreatedAt)
+                .orderByDesc(Plant::getPlantId)
+                .last("LIMIT " + limit);
+
+        List<Plant> list = this.list(qw);
+        markFavourites(list);
+        fillDiscoveredBy(list);
+
+        String nextCursor = null;
+        if (list.size() == limit) {
+            Plant last = list.get(list.size() - 1);
+            nextCursor = encodeCursor(last.getCreatedAt(), last.getPlantId());
+        }
+        KeysetPage<Plant> page = new KeysetPage<>(list, nextCursor);
+        if (Boolean.TRUE.equals(query.getWithTotal())) {
+            page.setTotal(countPlants(query));
+        }
+        return page;
+    }
+
     @Override
     public List<Plant> getAllPlants() {
-        return plantMapper.selectList(Wrappers.lambdaQuery());
+        List<Plant> list = plantMapper.selectList(voColumns());
+        markFavourites(list);
+        return list;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllPlants(Long userId, Consumer<PlantVO> consumer) {
+        Roaring64Bitmap liked = likedPlantsCache.getLikedPlants(userId);
+        // the transaction keeps the session (and the cursor) open, and lets the postgres driver honour fetchSize
+        try (Cursor<PlantVO> cursor = plantMapper.streamAll()) {
+            cursor.forEach(vo -> {
+                vo.setIsFavourite(liked.contains(vo.getPlantId()));
+                consumer.accept(vo);
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public KeysetPage<PlantVO> listPlantsAfter(Long afterId, int limit) {
+        List<PlantVO> list = plantMapper.selectAfter(afterId, limit);
+        Roaring64Bitmap liked = likedPlantsCache.getLikedPlants(UserContext.getCurrentUserId());
+        list.forEach(vo -> vo.setIsFavourite(liked.contains(vo.getPlantId())));
+        String nextCursor = list.size() < limit ? null : String.valueOf(list.get(list.size() - 1).getPlantId());
+        return new KeysetPage<>(list, nextCursor);
     }
 
 
@@ -72,27 +187,16 @@ public class PlantServiceImpl extends ServiceImpl<PlantMapper, Plant> implements
         Long userId = UserContext.getCurrentUserId();
 
         List<Plant> list = this.list(
-                Wrappers.<Plant>lambdaQuery()
+                listColumns()
                         .eq(Plant::getUserId, userId)
                         .orderByDesc(Plant::getCreatedAt)
         );
 
-        List<Long> likedIds = userPlantLikeMapper.selectList(
-                Wrappers.<UserPlantLike>lambdaQuery().eq(UserPlantLike::getUserId, userId)
-        ).stream().map(UserPlantLike::getPlantId).toList();
-
         // 拼接 isFavourite 字段
-        list.forEach(p -> p.setIsFavourite(likedIds.contains(p.getPlantId())));
+        markFavourites(list);
 
         // 拼接 discoveredBy 字段
-        list.forEach(p -> {
-            if (p.getUserId() != null) {
-                User user = userMapper.selectById(p.getUserId());
-                if (user != null && user.getUsername() != null) {
-                    p.setDiscoveredBy(user.getUsername());
-                }
-            }
-        });
+        fillDiscoveredBy(list);
 
         return list;
     }
@@ -101,33 +205,20 @@ public class PlantServiceImpl extends ServiceImpl<PlantMapper, Plant> implements
     public List<Plant> listLikedPlantsByUser() {
 
         Long userId = UserContext.getCurrentUserId();
-        List<Long> likedPlantIds = userPlantLikeMapper.selectList(
-                        Wrappers.<UserPlantLike>lambdaQuery().eq(UserPlantLike::getUserId, userId)
-                                .select(UserPlantLike::getPlantId) // 只查 plantId 字段
-                ).stream()
-                .map(UserPlantLike::getPlantId)
-                .distinct()
-                .toList();
-
-        if (likedPlantIds.isEmpty()) {
+        Roaring64Bitmap liked = likedPlantsCache.getLikedPlants(userId);
+        if (liked.isEmpty()) {
             return List.of();
         }
 
         List<Plant> list = this.list(
-                Wrappers.<Plant>lambdaQuery()
-                        .in(Plant::getPlantId, likedPlantIds)
+                listColumns()
+                        .in(Plant::getPlantId, Arrays.stream(liked.toArray()).boxed().toList())
                         .orderByDesc(Plant::getCreatedAt)
         );
+        list.forEach(p -> p.setIsFavourite(true));
 
         // 拼接 discoveredBy 字段
-        list.forEach(p -> {
-            if (p.getUserId() != null) {
-                User user = userMapper.selectById(p.getUserId());
-                if (user != null && user.getUsername() != null) {
-                    p.setDiscoveredBy(user.getUsername());
-                }
-            }
-        });
+        fillDiscoveredBy(list);
 
         return list;
     }
@@ -135,20 +226,82 @@ public class PlantServiceImpl extends ServiceImpl<PlantMapper, Plant> implements
     @Override
     public List<Plant> listPlantsByGarden(Long gardenId) {
         List<Plant> list = this.list(
-                Wrappers.<Plant>lambdaQuery()
+                listColumns()
                         .eq(Plant::getGardenId, gardenId)
                         .orderByDesc(Plant::getCreatedAt)
         );
+        markFavourites(list);
         return list;
     }
 
+    @Override
+    public Plant getPlant(Long plantId) {
+        return plantMapper.selectOne(listColumns().eq(Plant::getPlantId, plantId));
+    }
+
+    @Override
+    public byte[] getPlantImage(Long plantId, Integer size) {
+        if (size != null) {
+            PlantImageRendition rendition = renditionMapper.selectOne(
+                    Wrappers.<PlantImageRendition>lambdaQuery()
+                            .select(PlantImageRendition::getImage)
+                            .eq(PlantImageRendition::getPlantId, plantId)
+                            .eq(PlantImageRendition::getSize, size)
+            );
+            return rendition == null ? null : rendition.getImage();
+        }
+        Plant plant = plantMapper.selectOne(
+                Wrappers.<Plant>lambdaQuery()
+                        .select(Plant::getPlantId, Plant::getImage)
+                        .eq(Plant::getPlantId, plantId)
+        );
+        return plant == null ? null : plant.getImage();
+    }
+
+    @Override
+    public PlantImageMeta getPlantImageMeta(Long plantId, Integer size) {
+        Integer renditionSize = size == null ? null : renditionGenerator.renditionSize(size);
+        if (renditionSize == null) {
+            return plantMapper.selectImageMeta(plantId);
+        }
+        PlantImageMeta meta = renditionMapper.selectMeta(plantId, renditionSize);
+        if (meta != null) {
+            return meta;
+        }
+        // uploaded before renditions existed, or still queued: serve the original meanwhile
+        PlantImageMeta original = plantMapper.selectImageMeta(plantId);
+        if (original != null) {
+            renditionGenerator.submit(plantId);
+        }
+        return original;
+    }
+
     @Override
     public Plant addPlant(Plant plant) {
         Long userId = UserContext.getCurrentUserId();
         plant.setUserId(userId);
         plant.setPlantId(null);
+        // the keyset order of seekPlants needs it, a NULL row would never be reached by a cursor
+        plant.setCreatedAt(LocalDateTime.now());
+        if (plant.getImage() != null && plant.getImage().length > 0) {
+            // the row only keeps the blob key, identical photos are stored once
+            try {
+                plant.setImageHash(blobStore.put(plant.getImage()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            plant.setImage(null);
+        }
 
         boolean ok = this.save(plant);
+        if (ok) {
+            plantSpatialIndex.add(plant);
+            searchIndex.addPlant(plant);
+            responseCache.invalidate(ResponseCache.PLANTS_ALL);
+            if (plant.getImageHash() != null) {
+                renditionGenerator.submit(plant.getPlantId());
+            }
+        }
         return ok ? plant : null;
     }
 
@@ -160,58 +313,189 @@ public class PlantServiceImpl extends ServiceImpl<PlantMapper, Plant> implements
         if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
             throw new IllegalArgumentException("illegal longitude or latitude");
         }
-        List<Plant> list = plantMapper.selectNearBy(latitude, longitude, radius);
+        List<Plant> list = plantSpatialIndex.isReady()
+                ? selectNearByFromIndex(latitude, longitude, radius)
+                : selectNearByFromDb(latitude, longitude, radius);
+
+        // 拼接 isFavourite / discoveredBy 字段
+        markFavourites(list);
+        fillDiscoveredBy(list);
         
-        // 拼接 discoveredBy 字段
+        return list;
+    }
+
+    /**
+     * Every plant column except the inline image bytes, for list endpoints.
+     * Images are fetched one at a time through GET /api/plants/{id}/image.
+     */
+    private static LambdaQueryWrapper<Plant> listColumns() {
+        return Wrappers.<Plant>lambdaQuery()
+                .select(Plant.class, f -> !"image".equals(f.getColumn()));
+    }
+
+    /**
+     * Filters of PlantQuery, the description match is the only one that cannot use an index.
+     */
+    private static LambdaQueryWrapper<Plant> filter(LambdaQueryWrapper<Plant> qw, PlantQuery query) {
+        return qw
+                .eq(query.getPlantId() != null, Plant::getPlantId, query.getPlantId())
+                .eq(query.getUserId() != null, Plant::getUserId, query.getUserId())
+                .like(StringUtils.hasText(query.getDescription()), Plant::getDescription, query.getDescription())
+                .eq(StringUtils.hasText(query.getScientificName()), Plant::getScientificName, query.getScientificName())
+                .eq(query.getLatitude() != null, Plant::getLatitude, query.getLatitude())
+                .eq(query.getLongitude() != null, Plant::getLongitude, query.getLongitude());
+    }
+
+    /**
+     * Exact count of the filtered plants, or the planner's estimate when nothing is filtered.
+     */
+    private long countPlants(PlantQuery query) {
+        boolean filtered = query.getPlantId() != null || query.getUserId() != null
+                || StringUtils.hasText(query.getDescription()) || StringUtils.hasText(query.getScientificName())
+                || query.getLatitude() != null || query.getLongitude() != null;
+        if (!filtered) {
+            Long estimate = plantMapper.estimateCount();
+            // -1 / 0 until the table has been analyzed
+            if (estimate != null && estimate > 0) {
+                return estimate;
+            }
+        }
+        return plantMapper.selectCount(filter(Wrappers.lambdaQuery(), query));
+    }
+
+    private static String encodeCursor(LocalDateTime createdAt, Long plantId) {
+        String raw = createdAt + "," + plantId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static SeekCursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(",", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException();
+            }
+            return new SeekCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("invalid cursor");
+        }
+    }
+
+    private record SeekCursor(LocalDateTime createdAt, long plantId) {
+    }
+
+    /**
+     * Only the columns copied into PlantVO.
+     */
+    private static LambdaQueryWrapper<Plant> voColumns() {
+        return Wrappers.<Plant>lambdaQuery()
+                .select(Plant::getPlantId, Plant::getUserId, Plant::getName, Plant::getDescription,
+                        Plant::getLatitude, Plant::getLongitude, Plant::getScientificName, Plant::getGardenId,
+                        Plant::getLikeCount);
+    }
+
+    /**
+     * Set isFavourite for the current user, one bitmap lookup per plant.
+     */
+    private void markFavourites(List<Plant> list) {
+        Roaring64Bitmap liked = likedPlantsCache.getLikedPlants(UserContext.getCurrentUserId());
+        list.forEach(p -> p.setIsFavourite(p.getPlantId() != null && liked.contains(p.getPlantId())));
+    }
+
+    /**
+     * Set discoveredBy on every plant from the username cache, loading the misses in one query.
+     */
+    private void fillDiscoveredBy(List<Plant> list) {
+        Set<Long> userIds = list.stream()
+                .map(Plant::getUserId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (userIds.isEmpty()) {
+            return;
+        }
+        Map<Long, String> usernames = usernameCache.getUsernames(userIds);
         list.forEach(p -> {
             if (p.getUserId() != null) {
-                User user = userMapper.selectById(p.getUserId());
-                if (user != null && user.getUsername() != null) {
-                    p.setDiscoveredBy(user.getUsername());
-                }
+                p.setDiscoveredBy(usernames.get(p.getUserId()));
             }
         });
-        
-        return list;
     }
 
+    /**
+     * Resolve the nearby ids from the spatial index, then load only those rows, nearest first.
+     */
+    private List<Plant> selectNearByFromIndex(Double latitude, Double longitude, int radius) {
+        List<Long> ids = plantSpatialIndex.searchNearBy(latitude, longitude, radius, NEARBY_LIMIT);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Integer> rank = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            rank.put(ids.get(i), i);
+        }
+        List<Plant> list = this.list(voColumns().in(Plant::getPlantId, ids));
+        list.sort(Comparator.comparingInt(p -> rank.get(p.getPlantId())));
+        return list;
+    }
 
+    private List<Plant> selectNearByFromDb(Double latitude, Double longitude, int radius) {
+        double[] box = GeoUtil.boundingBox(latitude, longitude, radius);
+        return plantMapper.selectNearBy(latitude, longitude, radius, box[0], box[1], box[2], box[3]);
+    }
 
     @Override
     public boolean isLiked(Long userId, Long plantId) {
-        Long count = userPlantLikeMapper.selectCount(
-                Wrappers.<UserPlantLike>lambdaQuery()
-                        .eq(UserPlantLike::getUserId, userId)
-                        .eq(UserPlantLike::getPlantId, plantId)
-        );
-        return count != null && count > 0;
+        return likedPlantsCache.getLikedPlants(userId).contains(plantId);
     }
     @Override
+    @Transactional
     public boolean like(Long userId, Long plantId) {
-        // 幂等：已存在就视为成功
-        if (isLiked(userId, plantId)) {
-            return true;
+        // 幂等：已存在不报错，ON CONFLICT DO NOTHING 一条语句完成
+        int rows = userPlantLikeMapper.insertIgnore(userId, List.of(plantId));
+        // dropped after commit, see LikedPlantsCache.invalidate
+        // GET /api/plants/all is not flushed: isFavourite is marked from this cache when the shared body is served,
+        // like_count in it may lag by plant.response-cache.ttl-seconds
+        likedPlantsCache.invalidate(userId);
+        return rows > 0;
+    }
+
+    @Override
+    @Transactional
+    public List<PlantLikeState> likeBatch(Long userId, List<PlantLikeState> operations) {
+        if (operations.size() > LIKE_BATCH_LIMIT) {
+            throw new IllegalArgumentException("at most " + LIKE_BATCH_LIMIT + " like operations per batch");
         }
-        UserPlantLike like = new UserPlantLike();
-        like.setUserId(userId);
-        like.setPlantId(plantId);
-        try {
-            return userPlantLikeMapper.insert(like) > 0;
-        } catch (DuplicateKeyException e) {
-            // 兜底：并发下命中唯一约束也当成功
-            return true;
+        // the last operation on a plant wins
+        Map<Long, Boolean> finalState = new LinkedHashMap<>();
+        for (PlantLikeState op : operations) {
+            if (op.getPlantId() == null || op.getLiked() == null) {
+                throw new IllegalArgumentException("plantId and liked are required");
+            }
+            finalState.put(op.getPlantId(), op.getLiked());
+        }
+
+        List<Long> liked = new ArrayList<>();
+        List<Long> unliked = new ArrayList<>();
+        finalState.forEach((plantId, isLiked) -> (isLiked ? liked : unliked).add(plantId));
+        if (!liked.isEmpty()) {
+            userPlantLikeMapper.insertIgnore(userId, liked);
         }
+        if (!unliked.isEmpty()) {
+            userPlantLikeMapper.deleteByPlantIds(userId, unliked);
+        }
+        likedPlantsCache.invalidate(userId);
+
+        List<PlantLikeState> result = new ArrayList<>();
+        finalState.forEach((plantId, isLiked) -> result.add(new PlantLikeState(plantId, isLiked)));
+        return result;
     }
 
     @Override
+    @Transactional
     public boolean unlike(Long userId, Long plantId) {
-        int rows = userPlantLikeMapper.delete(
-                Wrappers.<UserPlantLike>lambdaQuery()
-                        .eq(UserPlantLike::getUserId, userId)
-                        .eq(UserPlantLike::getPlantId, plantId)
-        );
-        // 幂等：不存在也返回成功
-        return rows >= 0;
+        int rows = userPlantLikeMapper.deleteByPlantIds(userId, List.of(plantId));
+        likedPlantsCache.invalidate(userId);
+        return rows > 0;
     }
 
 }
\ No newline at end of file
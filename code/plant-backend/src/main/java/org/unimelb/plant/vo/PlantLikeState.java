@@ -0,0 +1,19 @@
+package org.unimelb.plant.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One like / unlike operation of POST /api/plants/likes:batch, and the resulting state in its response.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlantLikeState {
+
+    private Long plantId;
+
+    private Boolean liked;
+
+}
@@ -12,10 +12,15 @@ public class PlantQuery extends MyPage{
     private String name;
     private Long plantId;
     private Long userId;
-    private byte[] image;
     private String description;
     private Double latitude;
     private Double longitude;
     private String scientificName;
 
+    /** nextCursor of the previous page (keyset mode), empty for the first page */
+    private String cursor;
+
+    /** also return the number of matching plants, estimated from the table statistics when nothing is filtered */
+    private Boolean withTotal;
+
 }
@@ -0,0 +1,39 @@
+package org.unimelb.search.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import jakarta.annotation.Resource;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.unimelb.common.vo.Result;
+import org.unimelb.search.index.SearchIndex;
+import org.unimelb.search.vo.SearchHit;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    private static final int MAX_LIMIT = 50;
+
+    @Resource
+    private SearchIndex searchIndex;
+
+    /**
+     * Search plant and wiki names, scientific names and descriptions, best match first.
+     * The last word matches as a prefix, so the endpoint can back a type-ahead box.
+     * GET /api/search?q=mon del&type=wiki&limit=10
+     */
+    @Operation(summary = "Search plants and wiki")
+    @GetMapping
+    public Result<List<SearchHit>> search(@RequestParam("q") String q,
+                                          @RequestParam(name = "type", required = false) String type,
+                                          @RequestParam(name = "limit", defaultValue = "20") int limit) {
+        if (type != null && !SearchIndex.TYPE_PLANT.equals(type) && !SearchIndex.TYPE_WIKI.equals(type)) {
+            return Result.fail(500, "type must be plant or wiki");
+        }
+        return Result.success(searchIndex.search(q, type, Math.max(1, Math.min(limit, MAX_LIMIT))));
+    }
+}
@@ -0,0 +1,361 @@
+package org.unimelb.search.index;
+
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.unimelb.plant.entity.Plant;
+import org.unimelb.plant.mapper.PlantMapper;
+import org.unimelb.search.vo.SearchHit;
+import org.unimelb.wiki.entity.PlantWiki;
+import org.unimelb.wiki.mapper.WikiMapper;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over plant and wiki names, scientific names and descriptions, ranked with BM25.
+ * Every query term must match; the last one also matches as a prefix (type-ahead) through an edge n-gram
+ * dictionary. Loaded once the application is ready and kept current by PlantServiceImpl.addPlant.
+ */
+@Slf4j
+@Component
+public class SearchIndex {
+
+    public static final String TYPE_PLANT = "plant";
+
+    public static final String TYPE_WIKI = "wiki";
+
+    private static final float NAME_WEIGHT = 3f;
+
+    private static final float SCIENTIFIC_NAME_WEIGHT = 2f;
+
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    /** BM25 parameters */
+    private static final double K1 = 1.2;
+
+    private static final double B = 0.75;
+
+    /** prefix matches rank below the exact term */
+    private static final double PREFIX_BOOST = 0.7;
+
+    /** edge n-grams kept per term, longer prefixes are checked against the terms of the longest one */
+    private static final int MIN_PREFIX = 2;
+
+    private static final int MAX_PREFIX = 12;
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    @Resource
+    private PlantMapper plantMapper;
+
+    @Resource
+    private WikiMapper wikiMapper;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** replaced as a whole by rebuild(), modified in place by the add / remove methods under the write lock */
+    private Postings current = new Postings();
+
+    /** changes made since load() started reading, applied again to the rebuilt index */
+    private List<Consumer<Postings>> changedDuringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        beginRebuild();
+        try {
+            List<Plant> plants = plantMapper.selectList(
+                    Wrappers.<Plant>lambdaQuery()
+                            .select(Plant::getPlantId, Plant::getName, Plant::getScientificName, Plant::getDescription)
+            );
+            List<PlantWiki> wikis = wikiMapper.selectList(
+                    Wrappers.<PlantWiki>lambdaQuery()
+                            .select(PlantWiki::getPlantWikiId, PlantWiki::getName, PlantWiki::getScientificName,
+                                    PlantWiki::getDescription)
+            );
+            rebuild(plants, wikis);
+            log.info("search index loaded, {} plants, {} wiki entries", plants.size(), wikis.size());
+        } catch (Exception e) {
+            log.error("failed to load search index: {}", e.getMessage());
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * From here until the next rebuild, changes are also recorded for the rebuilt index.
+     */
+    void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the whole index. It is built without the lock, searches keep using the old one meanwhile;
+     * plants and wiki entries changed since load() started reading are applied again before the swap.
+     */
+    void rebuild(List<Plant> plants, List<PlantWiki> wikis) {
+        Postings next = new Postings();
+        plants.forEach(next::indexPlant);
+        wikis.forEach(next::indexWiki);
+        lock.writeLock().lock();
+        try {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.forEach(change -> change.accept(next));
+                changedDuringRebuild = null;
+            }
+            current = next;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void change(Consumer<Postings> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(current);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add or replace a plant.
+     */
+    public void addPlant(Plant plant) {
+        if (plant == null || plant.getPlantId() == null) {
+            return;
+        }
+        change(postings -> postings.indexPlant(plant));
+    }
+
+    /**
+     * Add or replace a wiki entry.
+     */
+    public void addWiki(PlantWiki wiki) {
+        if (wiki == null || wiki.getPlantWikiId() == null) {
+            return;
+        }
+        change(postings -> postings.indexWiki(wiki));
+    }
+
+    public void removeWiki(Long plantWikiId) {
+        change(postings -> postings.remove(new DocKey(TYPE_WIKI, plantWikiId)));
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return current.docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Best matches first. type limits the results to TYPE_PLANT or TYPE_WIKI, null searches both.
+     */
+    public List<SearchHit> search(String query, String type, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Postings index = current;
+            Map<DocKey, Doc> docs = index.docs;
+            if (docs.isEmpty()) {
+                return List.of();
+            }
+            int n = docs.size();
+            double avgLength = index.totalLength / n;
+
+            Map<DocKey, Double> scores = null;
+            for (int i = 0; i < tokens.size(); i++) {
+                String token = tokens.get(i);
+                Map<DocKey, Double> tokenScores = new HashMap<>();
+                for (String term : index.expand(token, i == tokens.size() - 1)) {
+                    Map<DocKey, Float> posting = index.postings.get(term);
+                    if (posting == null) {
+                        continue;
+                    }
+                    double idf = Math.log(1 + (n - posting.size() + 0.5) / (posting.size() + 0.5));
+                    double boost = term.equals(token) ? 1.0 : PREFIX_BOOST;
+                    for (Map.Entry<DocKey, Float> e : posting.entrySet()) {
+                        DocKey key = e.getKey();
+                        if (type != null && !type.equals(key.type())) {
+                            continue;
+                        }
+                        double tf = e.getValue();
+                        double norm = K1 * (1 - B + B * docs.get(key).length() / avgLength);
+                        double score = boost * idf * tf * (K1 + 1) / (tf + norm);
+                        // several prefix expansions of one token count once, with the best one
+                        tokenScores.merge(key, score, Math::max);
+                    }
+                }
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    scores.replaceAll((key, score) -> score + tokenScores.get(key));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<DocKey, Double>comparingByValue(Comparator.reverseOrder()))
+                    .limit(limit)
+                    .map(e -> {
+                        Doc doc = docs.get(e.getKey());
+                        return new SearchHit(e.getKey().type(), e.getKey().id(), doc.name(), doc.scientificName(), e.getValue());
+                    })
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lower case words without accents, split on anything that is not a letter or digit.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalized)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static double addTerms(Map<String, Float> terms, String text, float weight) {
+        List<String> tokens = tokenize(text);
+        for (String token : tokens) {
+            terms.merge(token, weight, Float::sum);
+        }
+        return tokens.size() * weight;
+    }
+
+    /**
+     * The index data, only used under the lock of the SearchIndex holding it (or before it is published).
+     */
+    private static final class Postings {
+
+        /** term -> document -> weighted term frequency */
+        private final Map<String, Map<DocKey, Float>> postings = new HashMap<>();
+
+        /** edge n-gram -> terms starting with it */
+        private final Map<String, Set<String>> prefixes = new HashMap<>();
+
+        private final Map<DocKey, Doc> docs = new HashMap<>();
+
+        private double totalLength;
+
+        Collection<String> expand(String token, boolean prefix) {
+            if (!prefix || token.length() < MIN_PREFIX) {
+                return List.of(token);
+            }
+            if (token.length() <= MAX_PREFIX) {
+                Set<String> terms = prefixes.get(token);
+                return terms == null ? List.of() : terms;
+            }
+            Set<String> terms = prefixes.get(token.substring(0, MAX_PREFIX));
+            return terms == null ? List.of() : terms.stream().filter(t -> t.startsWith(token)).toList();
+        }
+
+        void indexPlant(Plant plant) {
+            index(new DocKey(TYPE_PLANT, plant.getPlantId()), plant.getName(), plant.getScientificName(), plant.getDescription());
+        }
+
+        void indexWiki(PlantWiki wiki) {
+            index(new DocKey(TYPE_WIKI, wiki.getPlantWikiId()), wiki.getName(), wiki.getScientificName(), wiki.getDescription());
+        }
+
+        private void index(DocKey key, String name, String scientificName, String description) {
+            remove(key);
+
+            Map<String, Float> terms = new HashMap<>();
+            double length = addTerms(terms, name, NAME_WEIGHT)
+                    + addTerms(terms, scientificName, SCIENTIFIC_NAME_WEIGHT)
+                    + addTerms(terms, description, DESCRIPTION_WEIGHT);
+            if (terms.isEmpty()) {
+                return;
+            }
+            docs.put(key, new Doc(name, scientificName, terms.keySet(), length));
+            totalLength += length;
+            terms.forEach((term, tf) -> {
+                Map<DocKey, Float> posting = postings.computeIfAbsent(term, t -> new HashMap<>());
+                if (posting.isEmpty()) {
+                    for (int i = MIN_PREFIX; i <= Math.min(MAX_PREFIX, term.length()); i++) {
+                        prefixes.computeIfAbsent(term.substring(0, i), p -> new HashSet<>()).add(term);
+                    }
+                }
+                posting.put(key, tf);
+            });
+        }
+
+        void remove(DocKey key) {
+            Doc doc = docs.remove(key);
+            if (doc == null) {
+                return;
+            }
+            totalLength -= doc.length();
+            for (String term : doc.terms()) {
+                Map<DocKey, Float> posting = postings.get(term);
+                posting.remove(key);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                    for (int i = MIN_PREFIX; i <= Math.min(MAX_PREFIX, term.length()); i++) {
+                        String p = term.substring(0, i);
+                        Set<String> set = prefixes.get(p);
+                        set.remove(term);
+                        if (set.isEmpty()) {
+                            prefixes.remove(p);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private record DocKey(String type, long id) {
+    }
+
+    private record Doc(String name, String scientificName, Set<String> terms, double length) {
+    }
+}
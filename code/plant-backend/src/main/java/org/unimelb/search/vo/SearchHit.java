@@ -0,0 +1,27 @@
+package org.unimelb.search.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * One result of GET /api/search. type is "plant" (id = plantId) or "wiki" (id = plantWikiId).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchHit implements Serializable {
+
+    private String type;
+
+    private Long id;
+
+    private String name;
+
+    private String scientificName;
+
+    private Double score;
+
+}
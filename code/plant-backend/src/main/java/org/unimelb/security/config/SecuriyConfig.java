@@ -1,9 +1,11 @@
 package org.unimelb.security.config;
 
+import org.unimelb.common.config.ResponseCacheFilter;
 import org.unimelb.security.filter.JsonUsernamePasswordAuthenticationFilter;
 import org.unimelb.security.filter.JwtAuthenticationFilter;
 import org.unimelb.security.handler.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -14,6 +16,7 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.unimelb.security.handler.*;
 
@@ -39,6 +42,19 @@ public class SecuriyConfig {
     @Autowired
     private MyAccessDeniedHandler myAccessDeniedHandler;
 
+    @Autowired
+    private ResponseCacheFilter responseCacheFilter;
+
+    /**
+     * Only run ResponseCacheFilter inside the security chain, not also as a servlet filter in front of it.
+     */
+    @Bean
+    public FilterRegistrationBean<ResponseCacheFilter> responseCacheFilterRegistration(ResponseCacheFilter filter) {
+        FilterRegistrationBean<ResponseCacheFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     @Bean
     SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         // 1. 放行部分请求
@@ -54,9 +70,12 @@ public class SecuriyConfig {
                             "/v3/**",
                             "/test/**",
                             "/health/**",
-                            "/actuator/**",
+                            "/actuator/health",
+                            "/actuator/health/**",
                             "/sms/**",
                             "/api/plant-ai/**").anonymous()
+                    // metrics carry JVM, URI and cache data: admin tokens only
+                    .requestMatchers("/actuator/**").hasRole("admin")
                     .anyRequest().authenticated(); // 其余请求都需认证
         });
         // 2. 登录请求url
@@ -95,6 +114,9 @@ public class SecuriyConfig {
 
         http.addFilterBefore(jwtAuthenticationFilter,UsernamePasswordAuthenticationFilter.class);
 
+        // 响应缓存放在鉴权之后，命中时也要先通过认证
+        http.addFilterAfter(responseCacheFilter, AuthorizationFilter.class);
+
         return  http.build();
     }
 
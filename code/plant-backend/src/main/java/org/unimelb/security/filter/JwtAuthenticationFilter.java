@@ -3,6 +3,7 @@ package org.unimelb.security.filter;
 import org.unimelb.common.utils.JwtUtil;
 import org.unimelb.common.context.UserContext;
 import org.unimelb.security.vo.SecurityUser;
+import org.unimelb.user.cache.UserPrincipalCache;
 import org.unimelb.user.entity.User;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -24,6 +25,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
 
@@ -45,7 +49,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             if (StringUtils.hasLength(token)) {
                 User user = null;
                 try {
-                    user = jwtUtil.parseJwt(token, User.class);
+                    // the token only carries id / role / version, the user comes from the cache
+                    user = userPrincipalCache.getPrincipal(jwtUtil.parseJwt(token));
                     if (user != null) {
 
                         SecurityUser securityUser = new SecurityUser(user);
@@ -62,10 +67,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             }
         }
 
-        filterChain.doFilter(request, response);
-        
-
-        UserContext.clear();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // pooled platform threads must not carry the user into the next request
+            UserContext.clear();
+        }
 
     }
 }
\ No newline at end of file
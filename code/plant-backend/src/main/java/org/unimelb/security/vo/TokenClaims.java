@@ -0,0 +1,7 @@
+package org.unimelb.security.vo;
+
+/**
+ * What a token says about its user: sub = userId, role = userType, ver = User.tokenVersion.
+ */
+public record TokenClaims(Long userId, String role, int version) {
+}
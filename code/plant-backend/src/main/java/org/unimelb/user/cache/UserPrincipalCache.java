@@ -0,0 +1,89 @@
+package org.unimelb.user.cache;
+
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Resource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.unimelb.common.cache.LruTtlCache;
+import org.unimelb.security.vo.TokenClaims;
+import org.unimelb.user.entity.User;
+import org.unimelb.user.mapper.UserMapper;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * userId -> User for authenticated requests, the token only carries the id.
+ * Password and avatar bytes are not loaded. Hit / miss counts are published as cache.gets{cache=principal}.
+ */
+@Component
+public class UserPrincipalCache {
+
+    @Resource
+    private UserMapper userMapper;
+
+    private final LruTtlCache<Long, User> cache;
+
+    /** bumped by invalidate(), per stripe of user ids: a row loaded across an invalidation is not stored */
+    private final AtomicLongArray generations = new AtomicLongArray(64);
+
+    public UserPrincipalCache(@Value("${plant.cache.principal.max-size:10000}") int maxSize,
+                              @Value("${plant.cache.principal.ttl-seconds:300}") long ttlSeconds,
+                              MeterRegistry meterRegistry) {
+        this.cache = new LruTtlCache<>(maxSize, ttlSeconds * 1000);
+        this.cache.bindTo(meterRegistry, "principal");
+    }
+
+    /**
+     * The user the token belongs to, null when the user no longer exists or the token was revoked
+     * (its version is older than the user's token version).
+     */
+    public User getPrincipal(TokenClaims claims) {
+        if (claims.userId() == null) {
+            return null;
+        }
+        User user = getUser(claims.userId());
+        if (user == null || claims.version() != tokenVersion(user)) {
+            return null;
+        }
+        return user;
+    }
+
+    public User getUser(Long userId) {
+        User user = cache.get(userId);
+        if (user == null) {
+            long generation = generations.get(stripe(userId));
+            user = userMapper.selectOne(
+                    Wrappers.<User>lambdaQuery()
+                            .select(User::getUserId, User::getUsername, User::getPhone, User::getEmail,
+                                    User::getCreatedAt, User::getUpdatedAt, User::getUserType, User::getAvatar,
+                                    User::getAvatarHash, User::getTokenVersion)
+                            .eq(User::getUserId, userId)
+            );
+            synchronized (this) {
+                if (generations.get(stripe(userId)) == generation) {
+                    cache.put(userId, user);
+                }
+            }
+        }
+        return user;
+    }
+
+    /**
+     * Call after the user row changed.
+     */
+    public synchronized void invalidate(Long userId) {
+        if (userId != null) {
+            generations.incrementAndGet(stripe(userId));
+            cache.invalidate(userId);
+        }
+    }
+
+    private int stripe(Long userId) {
+        return Long.hashCode(userId) & (generations.length() - 1);
+    }
+
+    private static int tokenVersion(User user) {
+        return user.getTokenVersion() != null ? user.getTokenVersion() : 0;
+    }
+}
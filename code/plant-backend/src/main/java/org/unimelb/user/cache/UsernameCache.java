@@ -0,0 +1,75 @@
+package org.unimelb.user.cache;
+
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Resource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.unimelb.common.cache.LruTtlCache;
+import org.unimelb.user.entity.User;
+import org.unimelb.user.mapper.UserMapper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * userId -> username cache used to fill Plant.discoveredBy.
+ * Misses are loaded together with one IN query on the id and username columns.
+ * Hit / miss counts are published as cache.gets{cache=username}.
+ */
+@Component
+public class UsernameCache {
+
+    @Resource
+    private UserMapper userMapper;
+
+    private final LruTtlCache<Long, String> cache;
+
+    public UsernameCache(@Value("${plant.cache.username.max-size:10000}") int maxSize,
+                         @Value("${plant.cache.username.ttl-seconds:600}") long ttlSeconds,
+                         MeterRegistry meterRegistry) {
+        this.cache = new LruTtlCache<>(maxSize, ttlSeconds * 1000);
+        this.cache.bindTo(meterRegistry, "username");
+    }
+
+    /**
+     * Usernames of the given users; users without a username are absent from the result.
+     */
+    public Map<Long, String> getUsernames(Collection<Long> userIds) {
+        Map<Long, String> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long userId : userIds) {
+            String username = cache.get(userId);
+            if (username != null) {
+                result.put(userId, username);
+            } else {
+                missing.add(userId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        List<User> users = userMapper.selectList(
+                Wrappers.<User>lambdaQuery()
+                        .select(User::getUserId, User::getUsername)
+                        .in(User::getUserId, missing)
+        );
+        for (User user : users) {
+            if (user.getUsername() != null) {
+                cache.put(user.getUserId(), user.getUsername());
+                result.put(user.getUserId(), user.getUsername());
+            }
+        }
+        return result;
+    }
+
+    public void invalidate(Long userId) {
+        if (userId != null) {
+            cache.invalidate(userId);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.unimelb.user.controller;
 
 import io.swagger.v3.oas.annotations.Hidden;
+import org.unimelb.common.utils.ImageUtil;
 import org.unimelb.common.vo.Result;
 import org.unimelb.user.entity.User;
 import org.unimelb.user.service.UserService;
@@ -12,11 +13,8 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.imageio.ImageIO;
-import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
 
@@ -77,46 +75,13 @@ public class UserController {
     @Hidden
     @Operation(summary = "modify avatar")
     @PostMapping("/avatar")
-    public Result<?> updateAvatar(MultipartFile file, @RequestParam("userId") Integer userId) throws IOException, SQLException {
+    public Result<?> updateAvatar(MultipartFile file, @RequestParam("userId") Integer userId) throws IOException {
 
         // load image
         BufferedImage originalImage = ImageIO.read(file.getInputStream());
 
-        // create small size image
-        int thumbnailSize = 200;
-
-        // keep origin ratio
-        int newWidth, newHeight;
-        if (originalImage.getWidth() > originalImage.getHeight()) {
-            newWidth = thumbnailSize;
-            newHeight = thumbnailSize * originalImage.getHeight() / originalImage.getWidth();
-        } else {
-            newWidth = thumbnailSize * originalImage.getWidth() / originalImage.getHeight();
-            newHeight = thumbnailSize;
-        }
-
-        // create small size image
-        BufferedImage thumbnail = new BufferedImage(newWidth, newHeight, BufferedImage.TYPE_INT_RGB);
-        Graphics2D graphics2D = thumbnail.createGraphics();
-        graphics2D.drawImage(originalImage, 0, 0, newWidth, newHeight, null);
-        graphics2D.dispose();
-
-        // corp to
-        int x = 0;
-        int y = 0;
-        int cropSize = Math.min(newWidth, newHeight);
-        if (newWidth > newHeight) {
-            x = (newWidth - cropSize) / 2;
-        } else {
-            y = (newHeight - cropSize) / 2;
-        }
-        thumbnail = thumbnail.getSubimage(x, y, cropSize, cropSize);
-
-
-
-        ByteArrayOutputStream bs = new ByteArrayOutputStream();
-        ImageIO.write(thumbnail, "jpg", bs);
-        byte[] thumbnailBytes = bs.toByteArray();
+        // 200px square, cropped from the centre
+        byte[] thumbnailBytes = ImageUtil.toJpeg(ImageUtil.squareThumbnail(originalImage, 200));
 
         userService.updateAvatar(userId,thumbnailBytes);
         return Result.success();
@@ -30,4 +30,10 @@ public class User implements Serializable {
     private String avatar;
 
     private byte[] avatarData;
+
+    /** key of the avatar in the BlobStore, avatarData stays null once it is set */
+    private String avatarHash;
+
+    /** version claim of the user's tokens, bumped to revoke the tokens issued before */
+    private Integer tokenVersion;
 }
\ No newline at end of file
@@ -5,8 +5,6 @@ import org.unimelb.user.entity.User;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 
-import java.sql.Blob;
-
 public interface UserMapper extends BaseMapper<User> {
     @Select("select * from users where username=#{username} OR phone=#{username}")
     User getUserByName(String username);
@@ -14,9 +12,10 @@ public interface UserMapper extends BaseMapper<User> {
     @Update("update users set nickname=#{nickname} where id = #{userId}")
     void updateNickname(String userId, String nickname);
 
-    @Update("update users set password=#{password} where id = #{userId}")
+    /** also revokes the tokens issued with the old password, in the same statement */
+    @Update("update users set password=#{password}, token_version = token_version + 1 where id = #{userId}")
     void updatePassword(Integer userId, String password);
 
-    @Update("update users set avatar_data=#{avatarBlob} where id = #{userId}")
-    void updateAvatar(Integer userId, Blob avatarBlob);
+    @Update("update users set avatar_hash=#{avatarHash}, avatar_data=null where id = #{userId}")
+    void updateAvatarHash(Integer userId, String avatarHash);
 }
@@ -5,7 +5,6 @@ import com.baomidou.mybatisplus.extension.service.IService;
 import org.unimelb.common.vo.Result;
 import org.unimelb.user.entity.User;
 
-import java.sql.SQLException;
 import java.util.Map;
 
 public interface UserService extends IService<User> {
@@ -21,7 +20,7 @@ public interface UserService extends IService<User> {
 
     Result updatePassword(Integer userId, String password, String newPassword);
 
-    void updateAvatar(Integer userId, byte[] bytes) throws SQLException;
+    void updateAvatar(Integer userId, byte[] bytes);
 
     byte[] getAvatar(Integer userId);
 }
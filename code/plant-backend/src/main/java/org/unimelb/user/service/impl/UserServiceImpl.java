@@ -2,8 +2,12 @@ package org.unimelb.user.service.impl;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import org.unimelb.common.constant.ResultConstant;
+import org.unimelb.common.storage.BlobStore;
 import org.unimelb.common.utils.JwtUtil;
 import org.unimelb.common.vo.Result;
+import org.unimelb.security.vo.TokenClaims;
+import org.unimelb.user.cache.UserPrincipalCache;
+import org.unimelb.user.cache.UsernameCache;
 import org.unimelb.user.entity.User;
 import org.unimelb.user.mapper.UserMapper;
 import org.unimelb.user.service.UserService;
@@ -12,9 +16,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import javax.sql.rowset.serial.SerialBlob;
-import java.sql.SQLException;
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Map;
 
 @Service
@@ -26,11 +29,21 @@ public class UserServiceImpl extends ServiceImpl<UserMapper,User> implements Use
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UsernameCache usernameCache;
+
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
+    @Autowired
+    private BlobStore blobStore;
+
     @Override
     public void registerUser(User user) {
         user.setUsername(user.getUsername());
         user.setPassword(passwordEncoder.encode(user.getPassword()));
         userMapper.insert(user);
+        usernameCache.invalidate(user.getUserId());
     }
 
     @Autowired
@@ -38,8 +51,10 @@ public class UserServiceImpl extends ServiceImpl<UserMapper,User> implements Use
     @Override
     public Result<User> getUserInfo(String token) {
         try {
-            User user = jwtUtil.parseJwt(token, User.class);
-            Map<String, Object> data = new HashMap<>();
+            User user = userPrincipalCache.getPrincipal(jwtUtil.parseJwt(token));
+            if (user == null) {
+                return Result.fail(ResultConstant.FAIL_UNLOGIN_ERROR.getCode(),ResultConstant.FAIL_UNLOGIN_ERROR.getMessage());
+            }
             return Result.success(user);
         } catch (Exception e) {
             e.printStackTrace();
@@ -59,12 +74,18 @@ public class UserServiceImpl extends ServiceImpl<UserMapper,User> implements Use
     @Override
     public void updateNickname(String userId, String nickname) {
         userMapper.updateNickname(userId,nickname);
+        usernameCache.invalidate(Long.valueOf(userId));
+        userPrincipalCache.invalidate(Long.valueOf(userId));
     }
 
     @Override
     public Map<String,Object> getNewToken(String token) {
-        User user = jwtUtil.parseJwt(token, User.class);
-        User newUser = userMapper.selectById(user.getUserId());
+        TokenClaims claims = jwtUtil.parseJwt(token);
+        // a revoked token can not be exchanged for a new one
+        User newUser = userPrincipalCache.getPrincipal(claims);
+        if (newUser == null) {
+            throw new IllegalStateException(ResultConstant.FAIL_UNLOGIN_ERROR.getMessage());
+        }
         String newToken = jwtUtil.createJwt(newUser);
         return Map.of("user",newUser,"token",newToken);
     }
@@ -77,21 +98,36 @@ public class UserServiceImpl extends ServiceImpl<UserMapper,User> implements Use
         if(!matches){
             return Result.fail(301,"密码错误");
         }
+        // bumps token_version too: tokens issued with the old password stop working
         userMapper.updatePassword(userId,passwordEncoder.encode(newPassword));
-        return Result.success();
+        userPrincipalCache.invalidate(userId.longValue());
+        // the caller's own token was revoked as well, hand it a new one with the new version
+        User updated = userMapper.selectById(userId);
+        return Result.success(Map.of("token", jwtUtil.createJwt(updated)));
     }
 
     @Override
-    public void updateAvatar(Integer userId, byte[] avatar) throws SQLException {
+    public void updateAvatar(Integer userId, byte[] avatar) {
         log.debug("avatar: " + avatar.length);
-        SerialBlob avatarBlob = new SerialBlob(avatar);
-        userMapper.updateAvatar(userId,avatarBlob);
+        try {
+            userMapper.updateAvatarHash(userId, blobStore.put(avatar));
+            userPrincipalCache.invalidate(userId.longValue());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     @Override
     public byte[] getAvatar(Integer userId) {
         User user = userMapper.selectById(userId);
         //System.out.println(user);
-        return user.getAvatarData();
+        if (user.getAvatarHash() == null) {
+            return user.getAvatarData();
+        }
+        try {
+            return blobStore.readAllBytes(user.getAvatarHash());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
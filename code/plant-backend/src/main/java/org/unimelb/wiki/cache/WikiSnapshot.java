@@ -0,0 +1,17 @@
+package org.unimelb.wiki.cache;
+
+import org.unimelb.wiki.entity.PlantWiki;
+
+import java.util.List;
+
+/**
+ * The whole wiki at one version, with the GET /api/wiki/all body serialized once.
+ *
+ * @param version committed wiki version (plant_wiki_version counter, db/migration/009) read before the rows
+ * @param wikis   rows ordered by plantWikiId, not to be modified
+ * @param json    Result.success(wikis) as JSON
+ * @param gzip    json gzip compressed
+ * @param etag    quoted SHA-256 of json
+ */
+public record WikiSnapshot(long version, List<PlantWiki> wikis, byte[] json, byte[] gzip, String etag) {
+}
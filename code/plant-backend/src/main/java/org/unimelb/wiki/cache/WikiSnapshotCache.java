@@ -0,0 +1,179 @@
+package org.unimelb.wiki.cache;
+
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.unimelb.common.vo.Result;
+import org.unimelb.search.index.SearchIndex;
+import org.unimelb.wiki.entity.PlantWiki;
+import org.unimelb.wiki.mapper.WikiMapper;
+import org.unimelb.wiki.vo.WikiDelta;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Immutable in-memory snapshot of the plant_wiki table.
+ * The committed wiki version from db/migration/009 is polled every plant.wiki.refresh-seconds and the snapshot
+ * is only rebuilt when it moved, so requests never touch the database or re-serialize the rows.
+ * Versions become visible in commit order, so a delta "since V" cannot miss a row that was still being
+ * written when V was read.
+ * Rows removed while this process is running are remembered for delta requests.
+ */
+@Slf4j
+@Component
+public class WikiSnapshotCache {
+
+    @Resource
+    private WikiMapper wikiMapper;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Resource
+    private SearchIndex searchIndex;
+
+    private volatile WikiSnapshot snapshot;
+
+    /** version of the first snapshot, rows deleted before it are unknown so older clients get the full wiki */
+    private volatile long baseVersion = Long.MAX_VALUE;
+
+    /** plantWikiId -> version of the first snapshot without it */
+    private final Map<Long, Long> removed = new ConcurrentHashMap<>();
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        checkForChanges();
+    }
+
+    @Scheduled(initialDelayString = "${plant.wiki.refresh-seconds:60}", fixedDelayString = "${plant.wiki.refresh-seconds:60}",
+            timeUnit = TimeUnit.SECONDS)
+    public void checkForChanges() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            // keep serving the previous snapshot
+            log.error("failed to refresh wiki snapshot: {}", e.getMessage());
+        }
+    }
+
+    public WikiSnapshot get() {
+        WikiSnapshot current = snapshot;
+        if (current == null) {
+            refresh();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    public WikiDelta changesSince(long since) {
+        WikiSnapshot current = get();
+        WikiDelta delta = new WikiDelta();
+        delta.setVersion(current.version());
+        if (since < baseVersion || since > current.version()) {
+            delta.setFull(true);
+            delta.setWikis(current.wikis());
+            delta.setRemovedIds(List.of());
+            return delta;
+        }
+        delta.setFull(false);
+        delta.setWikis(current.wikis().stream()
+                .filter(w -> w.getVersion() != null && w.getVersion() > since)
+                .toList());
+        delta.setRemovedIds(removed.entrySet().stream()
+                .filter(e -> e.getValue() > since)
+                .map(Map.Entry::getKey)
+                .toList());
+        return delta;
+    }
+
+    /**
+     * Rebuild the snapshot if the wiki changed since the current one was read.
+     */
+    public void refresh() {
+        // a lock rather than synchronized: the queries below would pin the carrier of a virtual thread
+        refreshLock.lock();
+        try {
+            // read before the rows: a write committing in between is sent again with the next delta, never skipped
+            Long version = wikiMapper.selectVersion();
+            long newVersion = version == null ? 0 : version;
+            WikiSnapshot current = snapshot;
+            if (current != null && current.version() == newVersion) {
+                return;
+            }
+
+            List<PlantWiki> wikis = wikiMapper.selectList(
+                    Wrappers.<PlantWiki>lambdaQuery().orderByAsc(PlantWiki::getPlantWikiId)
+            );
+            WikiSnapshot next = build(newVersion, wikis);
+            if (current == null) {
+                baseVersion = newVersion;
+            } else {
+                updateSearchIndex(current, next);
+            }
+            snapshot = next;
+            log.info("wiki snapshot at version {}, {} entries, {} bytes ({} gzip)",
+                    newVersion, wikis.size(), next.json().length, next.gzip().length);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void updateSearchIndex(WikiSnapshot previous, WikiSnapshot next) {
+        Set<Long> ids = new HashSet<>();
+        for (PlantWiki wiki : next.wikis()) {
+            ids.add(wiki.getPlantWikiId());
+            removed.remove(wiki.getPlantWikiId());
+            if (wiki.getVersion() == null || wiki.getVersion() > previous.version()) {
+                searchIndex.addWiki(wiki);
+            }
+        }
+        for (PlantWiki wiki : previous.wikis()) {
+            if (!ids.contains(wiki.getPlantWikiId())) {
+                removed.put(wiki.getPlantWikiId(), next.version());
+                searchIndex.removeWiki(wiki.getPlantWikiId());
+            }
+        }
+    }
+
+    private WikiSnapshot build(long version, List<PlantWiki> wikis) {
+        List<PlantWiki> rows = List.copyOf(wikis);
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(Result.success(rows));
+            ByteArrayOutputStream bs = new ByteArrayOutputStream(json.length / 2);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(bs)) {
+                gzip.write(json);
+            }
+            return new WikiSnapshot(version, rows, json, bs.toByteArray(), "\"" + sha256(json) + "\"");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -2,16 +2,21 @@ package org.unimelb.wiki.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Controller;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.unimelb.common.vo.Result;
-import org.unimelb.garden.entity.Garden;
-import org.unimelb.wiki.entity.PlantWiki;
+import org.unimelb.wiki.cache.WikiSnapshot;
 import org.unimelb.wiki.service.WikiService;
-
-import java.util.List;
+import org.unimelb.wiki.vo.WikiDelta;
 
 @RestController
 @RequestMapping("api/wiki")
@@ -20,9 +25,42 @@ public class WikiController {
     @Autowired
     private WikiService wikiService;
 
+    /**
+     * Result<List<PlantWiki>> as pre-serialized bytes of the current snapshot, gzip compressed when accepted.
+     * Clients revalidate every time with the ETag and get 304 while the wiki is unchanged.
+     */
     @Operation(summary = "Get all wikis")
     @GetMapping("/all")
-    public Result<List<PlantWiki>> getAllWikis() {
-        return Result.success(wikiService.getAllWikis());
+    public ResponseEntity<byte[]> getAllWikis(@RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                              WebRequest request) {
+        WikiSnapshot snapshot = wikiService.getSnapshot();
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        // each encoding is its own representation, so it gets its own tag
+        String etag = gzip ? snapshot.etag().replaceFirst("\"$", "-gzip\"") : snapshot.etag();
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+
+        byte[] body = gzip ? snapshot.gzip() : snapshot.json();
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(body.length)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.body(body);
+    }
+
+    /**
+     * Rows added or changed after version since, plus ids removed since then.
+     */
+    @Operation(summary = "Get wiki changes since a version")
+    @GetMapping(value = "/all", params = "since")
+    public Result<WikiDelta> getWikiChanges(@RequestParam("since") long since) {
+        return Result.success(wikiService.getChangesSince(since));
     }
 }
@@ -34,4 +34,7 @@ public class PlantWiki {
     private String Toxicity;
 
     private String airPurifying;
+
+    /** change version, stamped from the plant_wiki_version counter by the trigger in db/migration/009 */
+    private Long version;
 }
@@ -7,4 +7,8 @@ import org.unimelb.wiki.entity.PlantWiki;
 @Mapper
 public interface WikiMapper extends BaseMapper<PlantWiki> {
 
+    /**
+     * Last committed wiki version (plant_wiki_version), changes whenever a wiki row is inserted, updated or deleted.
+     */
+    Long selectVersion();
 }
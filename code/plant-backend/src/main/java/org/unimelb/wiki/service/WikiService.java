@@ -1,11 +1,17 @@
 package org.unimelb.wiki.service;
 
 
+import org.unimelb.wiki.cache.WikiSnapshot;
 import org.unimelb.wiki.entity.PlantWiki;
+import org.unimelb.wiki.vo.WikiDelta;
 
 import java.util.List;
 
 public interface WikiService {
 
     List<PlantWiki> getAllWikis();
+
+    WikiSnapshot getSnapshot();
+
+    WikiDelta getChangesSince(long since);
 }
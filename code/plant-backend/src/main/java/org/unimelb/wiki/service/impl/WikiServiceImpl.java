@@ -1,22 +1,30 @@
 package org.unimelb.wiki.service.impl;
-import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import jakarta.annotation.Resource;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.unimelb.wiki.cache.WikiSnapshot;
+import org.unimelb.wiki.cache.WikiSnapshotCache;
 import org.unimelb.wiki.entity.PlantWiki;
-import org.unimelb.wiki.mapper.WikiMapper;
 import org.unimelb.wiki.service.WikiService;
+import org.unimelb.wiki.vo.WikiDelta;
 
 import java.util.List;
 
 @Service
 public class WikiServiceImpl implements WikiService {
     @Resource
-    private WikiMapper wikiMapper;
+    private WikiSnapshotCache wikiSnapshotCache;
     @Override
     public List<PlantWiki> getAllWikis() {
-        return wikiMapper.selectList(Wrappers.lambdaQuery());
+        return wikiSnapshotCache.get().wikis();
     }
 
+    @Override
+    public WikiSnapshot getSnapshot() {
+        return wikiSnapshotCache.get();
+    }
 
+    @Override
+    public WikiDelta getChangesSince(long since) {
+        return wikiSnapshotCache.changesSince(since);
+    }
 }
@@ -0,0 +1,20 @@
+package org.unimelb.wiki.vo;
+
+import lombok.Data;
+import org.unimelb.wiki.entity.PlantWiki;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Changes of the wiki since a version the client already has.
+ * When full is true the client's version is too old (or unknown to this server) and wikis is the whole wiki,
+ * replace the local copy instead of merging. Pass version back as since next time.
+ */
+@Data
+public class WikiDelta implements Serializable {
+    private Long version;
+    private Boolean full;
+    private List<PlantWiki> wikis;
+    private List<Long> removedIds;
+}
@@ -0,0 +1,171 @@
+package org.unimelb.ai.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * OpenAIClient against a local stub of the OpenAI API.
+ */
+public class OpenAIClientTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final AtomicReference<JsonNode> lastRequest = new AtomicReference<>();
+
+    private final AtomicReference<String> lastAuthorization = new AtomicReference<>();
+
+    private final Set<Object> clientConnections = ConcurrentHashMap.newKeySet();
+
+    private final CountDownLatch firstTokenSeen = new CountDownLatch(1);
+
+    private HttpServer server;
+
+    private OpenAIClient client;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/v1/chat/completions", exchange -> {
+            record(exchange);
+            reply(exchange, 200, "{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\"A monstera.\"}}]}");
+        });
+        server.createContext("/v1/responses", exchange -> {
+            record(exchange);
+            reply(exchange, 200, "{\"output\":[{\"content\":[{\"type\":\"output_text\",\"text\":\"Water weekly.\"}]}]}");
+        });
+        server.createContext("/v1/stream/chat/completions", exchange -> {
+            record(exchange);
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream out = exchange.getResponseBody();
+            out.write(chunk("Water "));
+            out.flush();
+            try {
+                // the rest is only sent once the client has seen the first token
+                firstTokenSeen.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            out.write(chunk("it "));
+            out.write(chunk("weekly."));
+            out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+            exchange.close();
+        });
+        server.createContext("/v1/broken/chat/completions", exchange -> {
+            record(exchange);
+            reply(exchange, 429, "{\"error\":{\"message\":\"Rate limit reached\"}}");
+        });
+        server.start();
+        client = client("/v1");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private static byte[] chunk(String content) {
+        return ("data: {\"choices\":[{\"index\":0,\"delta\":{\"content\":\"" + content + "\"}}]}\n\n")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private OpenAIClient client(String path) {
+        return new OpenAIClient("http://127.0.0.1:" + server.getAddress().getPort() + path, "test-key", 5, 5, false, objectMapper);
+    }
+
+    private void record(HttpExchange exchange) throws IOException {
+        lastRequest.set(objectMapper.readTree(exchange.getRequestBody()));
+        lastAuthorization.set(exchange.getRequestHeaders().getFirst("Authorization"));
+        clientConnections.add(exchange.getRemoteAddress());
+    }
+
+    private static void reply(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+
+    @Test
+    public void chatPostsMessagesAndReturnsFirstChoice() throws Exception {
+        List<Map<String, Object>> messages = List.of(Map.of("role", "user", "content", "What is this plant?"));
+        String answer = client.chat("gpt-4o", messages, 1000, 0.7).get(5, TimeUnit.SECONDS);
+
+        assertEquals("A monstera.", answer);
+        assertEquals("Bearer test-key", lastAuthorization.get());
+        assertEquals("gpt-4o", lastRequest.get().path("model").asText());
+        assertEquals("What is this plant?", lastRequest.get().path("messages").path(0).path("content").asText());
+    }
+
+    @Test
+    public void respondReturnsFirstOutputText() throws Exception {
+        assertEquals("Water weekly.", client.respond("gpt-4.1-nano", "How often?", 0.7).get(5, TimeUnit.SECONDS));
+        assertEquals("How often?", lastRequest.get().path("input").asText());
+    }
+
+    @Test
+    public void connectionIsReusedAcrossCalls() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            client.respond("gpt-4.1-nano", "q" + i, 0.7).get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(1, clientConnections.size());
+    }
+
+    @Test
+    public void chatStreamDeliversTokensAsTheyArrive() throws Exception {
+        List<String> tokens = new CopyOnWriteArrayList<>();
+        String answer = client("/v1/stream").chatStream("gpt-4o", List.of(Map.of("role", "user", "content", "How often?")),
+                100, 0.7, token -> {
+                    tokens.add(token);
+                    firstTokenSeen.countDown();
+                }).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("Water ", "it ", "weekly."), tokens);
+        assertEquals("Water it weekly.", answer);
+        assertTrue(lastRequest.get().path("stream").asBoolean());
+    }
+
+    @Test
+    public void failingTokenConsumerFailsTheStream() {
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> client("/v1/stream").chatStream("gpt-4o", List.of(), 100, 0.7, token -> {
+                    firstTokenSeen.countDown();
+                    throw new IllegalStateException("client gone");
+                }).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    @Test
+    public void errorStatusFailsTheFuture() {
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> client("/v1/broken").chat("gpt-4o", List.of(), 10, 0.7).get(5, TimeUnit.SECONDS));
+        OpenAIException cause = assertInstanceOf(OpenAIException.class, e.getCause());
+        assertEquals(429, cause.getStatus());
+    }
+}
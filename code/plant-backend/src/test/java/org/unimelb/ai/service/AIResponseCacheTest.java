@@ -0,0 +1,71 @@
+package org.unimelb.ai.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class AIResponseCacheTest {
+
+    private static AIResponseCache cache(String file, SimpleMeterRegistry registry) {
+        return new AIResponseCache(100, 3600, file, 120, registry, new ObjectMapper());
+    }
+
+    @Test
+    public void nearIdenticalInputsShareAKey() {
+        assertEquals(AIResponseCache.askKey("How do I care for a Monstera?"),
+                AIResponseCache.askKey("  how do i care for monstera please "));
+        assertNotEquals(AIResponseCache.askKey("How do I care for a Monstera?"),
+                AIResponseCache.askKey("How do I propagate a Monstera?"));
+
+        assertEquals(AIResponseCache.careKey("Monstera", Map.of("temperature", "24.6°C", "humidity", "61%")),
+                AIResponseCache.careKey("monstera", Map.of("humidity", "64%", "temperature", "25°C")));
+        assertNotEquals(AIResponseCache.careKey("Monstera", Map.of("temperature", "18°C")),
+                AIResponseCache.careKey("Monstera", Map.of("temperature", "30°C")));
+    }
+
+    @Test
+    public void onlyTheFirstRequestCallsTheLoader() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AIResponseCache cache = cache("", registry);
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            String answer = cache.getOrLoad("ask|monstera", () -> {
+                calls.incrementAndGet();
+                return CompletableFuture.completedFuture("Water weekly.");
+            }).get();
+            assertEquals("Water weekly.", answer);
+        }
+        assertEquals(1, calls.get());
+        assertEquals(2, registry.get("ai.cache.saved").timer().count());
+    }
+
+    @Test
+    public void failedLoadsAreNotCached() {
+        AIResponseCache cache = cache("", new SimpleMeterRegistry());
+        cache.getOrLoad("ask|monstera", () -> CompletableFuture.failedFuture(new IllegalStateException("429")));
+        assertNull(cache.get("ask|monstera"));
+    }
+
+    @Test
+    public void answersSurviveARestartThroughTheFile(@TempDir Path dir) {
+        String file = dir.resolve("ai-cache.json").toString();
+        AIResponseCache before = cache(file, new SimpleMeterRegistry());
+        before.put("ask|monstera", "Water weekly.", 3000);
+        before.save();
+
+        AIResponseCache after = cache(file, new SimpleMeterRegistry());
+        after.load();
+        assertEquals("Water weekly.", after.get("ask|monstera"));
+    }
+}
@@ -0,0 +1,81 @@
+package org.unimelb.ai.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.unimelb.common.utils.ImageUtil;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IdentificationCacheTest {
+
+    /** random leaves on a background, the same seed draws the same picture */
+    private static BufferedImage photo(long seed) {
+        Random random = new Random(seed);
+        BufferedImage image = new BufferedImage(1200, 900, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(new Color(random.nextInt(0xFFFFFF)));
+        g.fillRect(0, 0, 1200, 900);
+        for (int i = 0; i < 12; i++) {
+            g.setColor(new Color(random.nextInt(0xFFFFFF)));
+            g.fillOval(random.nextInt(1000), random.nextInt(700), 100 + random.nextInt(300), 100 + random.nextInt(300));
+        }
+        g.dispose();
+        return image;
+    }
+
+    @Test
+    public void resizedAndReencodedCopiesHashClose() throws IOException {
+        BufferedImage original = photo(1);
+        BufferedImage copy = ImageUtil.read(ImageUtil.toJpeg(ImageUtil.fit(original, 500)));
+
+        long hash = ImageUtil.dHash(original);
+        assertTrue(Long.bitCount(hash ^ ImageUtil.dHash(copy)) <= 6);
+        assertTrue(Long.bitCount(hash ^ ImageUtil.dHash(photo(2))) > 6);
+    }
+
+    @Test
+    public void similarPhotoAtTheSameLocationReusesTheAnswer() throws IOException {
+        IdentificationCache cache = new IdentificationCache(100, 3600, 6, 120, new SimpleMeterRegistry());
+        long hash = ImageUtil.dHash(photo(1));
+        cache.put(hash, "Melbourne", "Monstera deliciosa", 6000);
+
+        long copy = ImageUtil.dHash(ImageUtil.read(ImageUtil.toJpeg(ImageUtil.fit(photo(1), 500))));
+        assertEquals("Monstera deliciosa", cache.get(copy, "melbourne"));
+        assertNull(cache.get(copy, "Sydney"));
+        assertNull(cache.get(ImageUtil.dHash(photo(2)), "Melbourne"));
+    }
+
+    @Test
+    public void evictedPhotosLeaveTheIndex() {
+        IdentificationCache cache = new IdentificationCache(2, 3600, 6, 120, new SimpleMeterRegistry());
+        for (long i = 0; i < 10; i++) {
+            // far apart: every byte differs
+            cache.put(i * 0x0101010101010101L, "Melbourne", "plant " + i, 100);
+        }
+        assertNull(cache.get(0x0101010101010101L, "Melbourne"));
+        assertEquals("plant 9", cache.get(9 * 0x0101010101010101L ^ 0b101, "Melbourne"));
+        assertEquals("plant 8", cache.get(8 * 0x0101010101010101L, "Melbourne"));
+    }
+
+    @Test
+    public void evictedClosestPhotoFallsBackToTheNextOne() {
+        IdentificationCache cache = new IdentificationCache(2, 3600, 6, 120, new SimpleMeterRegistry());
+        long hash = 0x0F0F0F0F0F0F0F0FL;
+        cache.put(hash ^ 0b111, "Melbourne", "farther", 100);
+        cache.put(hash ^ 0b1, "Melbourne", "closest", 100);
+        assertEquals("farther", cache.get(hash ^ 0b111, "Melbourne"));
+        // evicts the least recently used, the closest one
+        cache.put(~hash, "Melbourne", "unrelated", 100);
+
+        assertEquals("farther", cache.get(hash, "Melbourne"));
+        assertEquals("farther", cache.get(hash, "Melbourne"));
+    }
+}
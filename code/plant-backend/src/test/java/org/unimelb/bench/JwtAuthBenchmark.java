@@ -0,0 +1,129 @@
+package org.unimelb.bench;
+
+import com.alibaba.fastjson2.JSON;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.unimelb.common.cache.LruTtlCache;
+import org.unimelb.common.utils.JwtUtil;
+import org.unimelb.security.vo.TokenClaims;
+import org.unimelb.user.entity.User;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of reading the user from the Authorization header.
+ * <ul>
+ *     <li>legacy: what JwtAuthenticationFilter used to do, new key + parser per request and the
+ *     whole User as JSON in the subject</li>
+ *     <li>compactUncached: shared parser, compact claims, every request verified (first request of a token)</li>
+ *     <li>compactCached: JwtUtil.parseJwt for a token seen before, no HMAC or claims decoding but still a
+ *     SHA-256 of the token and a lookup under the cache lock; add -prof gc to see what it allocates</li>
+ * </ul>
+ * Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/test.classpath
+ * java -cp target/test-classes:target/classes:$(cat target/test.classpath) org.unimelb.bench.JwtAuthBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthBenchmark {
+
+    private static final String SECRET = "12345678901234567890123456789012";
+
+    private String legacyToken;
+
+    private String compactToken;
+
+    private JwtUtil cached;
+
+    private JwtUtil uncached;
+
+    private LruTtlCache<?, ?> uncachedVerified;
+
+    @Setup
+    public void setUp() {
+        User user = new User();
+        user.setUserId(42L);
+        user.setUsername("zhangsan");
+        user.setPhone("18899998888");
+        user.setPassword("$2a$10$ki4GC8ZK4kHXGpmAhYj3vOhKBx4Tym/ugeNpqx2IYko7ekDMxe4EW");
+        user.setEmail("zhangsan@example.com");
+        user.setUserType("user");
+        user.setAvatar("avatar.png");
+        user.setTokenVersion(0);
+
+        legacyToken = "Bearer " + Jwts.builder()
+                .setId(UUID.randomUUID() + "")
+                .setSubject(JSON.toJSONString(user))
+                .setIssuer("system")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(10)))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+
+        cached = jwtUtil(10000);
+        uncached = jwtUtil(1);
+        uncachedVerified = (LruTtlCache<?, ?>) ReflectionTestUtils.getField(uncached, "verified");
+        compactToken = "Bearer " + cached.createJwt(user);
+    }
+
+    private static JwtUtil jwtUtil(int cacheSize) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpire", 600L);
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheSize", cacheSize);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    @Benchmark
+    public User legacy() {
+        Claims body = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(legacyToken.replace("Bearer ", ""))
+                .getBody();
+        return JSON.parseObject(body.getSubject(), User.class);
+    }
+
+    @Benchmark
+    public TokenClaims compactUncached() {
+        // same token every time, so drop it from the cache to measure verification rather than signing a new one
+        uncachedVerified.invalidateAll();
+        return uncached.parseJwt(compactToken);
+    }
+
+    @Benchmark
+    public TokenClaims compactCached() {
+        return cached.parseJwt(compactToken);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
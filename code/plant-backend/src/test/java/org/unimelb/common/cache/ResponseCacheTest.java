@@ -0,0 +1,98 @@
+package org.unimelb.common.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ResponseCacheTest {
+
+    private static final String JSON = "application/json";
+
+    private static byte[] body(int size) {
+        return "x".repeat(size).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void storesJsonAndGzip() throws IOException {
+        ResponseCache cache = new ResponseCache(1 << 20, 60, new SimpleMeterRegistry());
+        byte[] json = "{\"code\":200}".getBytes(StandardCharsets.UTF_8);
+        cache.put(ResponseCache.GARDENS_ALL, "", cache.generation(ResponseCache.GARDENS_ALL), JSON, json);
+
+        ResponseCache.CachedResponse cached = cache.get(ResponseCache.GARDENS_ALL, "");
+        assertArrayEquals(json, cached.json());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(cached.gzip()))) {
+            assertArrayEquals(json, in.readAllBytes());
+        }
+    }
+
+    @Test
+    public void leastRecentlyUsedBodiesAreEvictedOverTheByteLimit() {
+        ResponseCache cache = new ResponseCache(25_000, 60, new SimpleMeterRegistry());
+        long generation = cache.generation(ResponseCache.PLANTS_ALL);
+        cache.put(ResponseCache.PLANTS_ALL, "1", generation, JSON, body(10_000));
+        cache.put(ResponseCache.PLANTS_ALL, "2", generation, JSON, body(10_000));
+        cache.get(ResponseCache.PLANTS_ALL, "1");
+        cache.put(ResponseCache.PLANTS_ALL, "3", generation, JSON, body(10_000));
+
+        assertNotNull(cache.get(ResponseCache.PLANTS_ALL, "1"));
+        assertNull(cache.get(ResponseCache.PLANTS_ALL, "2"));
+        assertNotNull(cache.get(ResponseCache.PLANTS_ALL, "3"));
+    }
+
+    @Test
+    public void invalidationDropsTheRouteAndResponsesComputedBeforeIt() {
+        ResponseCache cache = new ResponseCache(1 << 20, 60, new SimpleMeterRegistry());
+        long plants = cache.generation(ResponseCache.PLANTS_ALL);
+        cache.put(ResponseCache.PLANTS_ALL, "1", plants, JSON, body(10));
+        cache.put(ResponseCache.GARDENS_ALL, "", cache.generation(ResponseCache.GARDENS_ALL), JSON, body(10));
+
+        cache.invalidate(ResponseCache.PLANTS_ALL);
+        assertNull(cache.get(ResponseCache.PLANTS_ALL, "1"));
+        assertNotNull(cache.get(ResponseCache.GARDENS_ALL, ""));
+
+        // started before the invalidation, may hold the old rows
+        cache.put(ResponseCache.PLANTS_ALL, "2", plants, JSON, body(10));
+        assertNull(cache.get(ResponseCache.PLANTS_ALL, "2"));
+    }
+
+    @Test
+    public void favouritesAreStoredUnmarkedAndRenderedPerUser() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        byte[] body = ("{\"code\":200,\"data\":[{\"plantId\":1,\"isFavourite\":true,\"tags\":{\"isFavourite\":null}},"
+                + "{\"isFavourite\":false,\"plantId\":2},{\"plantId\":3,\"isFavourite\":null}]}").getBytes(StandardCharsets.UTF_8);
+        FavouriteTemplate template = FavouriteTemplate.parse(mapper.getFactory(), body);
+
+        String shared = new String(template.json(), StandardCharsets.UTF_8);
+        assertEquals("{\"code\":200,\"data\":[{\"plantId\":1,\"isFavourite\":false,\"tags\":{\"isFavourite\":null}},"
+                + "{\"isFavourite\":false,\"plantId\":2},{\"plantId\":3,\"isFavourite\":null}]}", shared);
+        assertSame(template.json(), template.render(new Roaring64Bitmap()));
+
+        Roaring64Bitmap liked = Roaring64Bitmap.bitmapOf(2, 3, 99);
+        JsonNode plants = mapper.readTree(template.render(liked)).get("data");
+        assertFalse(plants.get(0).get("isFavourite").asBoolean());
+        assertTrue(plants.get(1).get("isFavourite").asBoolean());
+        assertTrue(plants.get(2).get("isFavourite").isNull());
+        assertEquals(shared, new String(template.json(), StandardCharsets.UTF_8));
+
+        // a flag outside the plant list, or on a plant without an id, would be shared by every user
+        assertNull(FavouriteTemplate.parse(mapper.getFactory(),
+                "{\"data\":[{\"plantId\":1,\"tags\":{\"isFavourite\":true}}]}".getBytes(StandardCharsets.UTF_8)));
+        assertNull(FavouriteTemplate.parse(mapper.getFactory(),
+                "{\"data\":[{\"isFavourite\":true}]}".getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,88 @@
+package org.unimelb.common.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SingleFlightTest {
+
+    @Test
+    public void concurrentCallsShareOneLoad() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SingleFlight<String, String> flights = new SingleFlight<>(5000);
+        flights.bindTo(registry, "test");
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = flights.run("ask|tomato", () -> {
+            loads.incrementAndGet();
+            return upstream;
+        });
+        CompletableFuture<String> second = flights.run("ask|tomato", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+
+        // one caller giving up does not cancel the load for the other
+        first.cancel(true);
+        upstream.complete("water weekly");
+
+        assertEquals("water weekly", second.get(1, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+        assertEquals(0, flights.inFlight());
+        assertEquals(1.0, registry.get("singleflight.calls").tag("result", "joined").functionCounter().count());
+
+        // finished flights are not reused
+        assertEquals("again", flights.run("ask|tomato", () -> CompletableFuture.completedFuture("again")).get());
+    }
+
+    @Test
+    public void failuresAndTimeoutsReachEveryCallerAndFreeTheKey() throws Exception {
+        SingleFlight<String, String> flights = new SingleFlight<>(100);
+
+        CompletableFuture<String> failed = flights.run("k", () -> CompletableFuture.failedFuture(new IllegalStateException("down")));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failed.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+
+        CompletableFuture<String> load = new CompletableFuture<>();
+        CompletableFuture<String> hung = flights.run("k", () -> load);
+        CompletableFuture<String> joined = flights.run("k", () -> CompletableFuture.completedFuture("unused"));
+        e = assertThrows(ExecutionException.class, () -> hung.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, e.getCause());
+        e = assertThrows(ExecutionException.class, () -> joined.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, e.getCause());
+        // the key is removed by a callback of the timed out flight, which may still be running
+        while (flights.inFlight() > 0) {
+            Thread.sleep(5);
+        }
+        assertTrue(load.isCancelled());
+    }
+
+    @Test
+    public void loadIsCancelledWhenEveryCallerGivesUp() throws Exception {
+        SingleFlight<String, String> flights = new SingleFlight<>(5000);
+        CompletableFuture<String> load = new CompletableFuture<>();
+
+        CompletableFuture<String> first = flights.run("k", () -> load);
+        CompletableFuture<String> second = flights.run("k", CompletableFuture::new);
+        first.cancel(true);
+        assertFalse(load.isCancelled());
+        second.cancel(true);
+        assertTrue(load.isCancelled());
+        assertEquals(0, flights.inFlight());
+
+        // a new caller starts a new load
+        assertEquals("fresh", flights.run("k", () -> CompletableFuture.completedFuture("fresh")).get(1, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,90 @@
+package org.unimelb.common.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.unimelb.common.cache.ResponseCache;
+import org.unimelb.common.context.UserContext;
+import org.unimelb.plant.cache.LikedPlantsCache;
+import org.unimelb.user.entity.User;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ResponseCacheFilterTest {
+
+    private static final String KEYSET_BODY = "{\"code\":200,\"data\":{\"records\":["
+            + "{\"plantId\":1,\"isFavourite\":true},{\"plantId\":2,\"isFavourite\":false}],\"nextCursor\":2}}";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final AtomicInteger controllerCalls = new AtomicInteger();
+
+    private final HttpServlet controller = new HttpServlet() {
+        @Override
+        protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            controllerCalls.incrementAndGet();
+            response.setContentType("application/json");
+            response.getOutputStream().write(KEYSET_BODY.getBytes(StandardCharsets.UTF_8));
+        }
+    };
+
+    @AfterEach
+    public void clearUser() {
+        UserContext.clear();
+    }
+
+    @Test
+    public void keysetBodyIsCachedOnceAndMarkedPerUser() throws Exception {
+        LikedPlantsCache likedPlantsCache = mock(LikedPlantsCache.class);
+        when(likedPlantsCache.getLikedPlants(1L)).thenReturn(Roaring64Bitmap.bitmapOf(1));
+        when(likedPlantsCache.getLikedPlants(2L)).thenReturn(Roaring64Bitmap.bitmapOf(2));
+        ResponseCacheFilter filter = new ResponseCacheFilter();
+        ReflectionTestUtils.setField(filter, "responseCache", new ResponseCache(1 << 20, 60, new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(filter, "objectMapper", mapper);
+        ReflectionTestUtils.setField(filter, "likedPlantsCache", likedPlantsCache);
+
+        // the first caller likes plant 1, that body fills the cache
+        serve(filter, 1L);
+        MockHttpServletResponse second = serve(filter, 2L);
+        assertEquals(1, controllerCalls.get());
+
+        // a user with likes gets the marked body uncompressed, not the stored gzip of the shared body
+        assertNull(second.getHeader(HttpHeaders.CONTENT_ENCODING));
+        JsonNode records = mapper.readTree(second.getContentAsByteArray()).get("data").get("records");
+        assertFalse(records.get(0).get("isFavourite").asBoolean());
+        assertTrue(records.get(1).get("isFavourite").asBoolean());
+        assertEquals(2, mapper.readTree(second.getContentAsByteArray()).get("data").get("nextCursor").asLong());
+    }
+
+    private MockHttpServletResponse serve(ResponseCacheFilter filter, long userId) throws Exception {
+        User user = new User();
+        user.setUserId(userId);
+        UserContext.setUser(user);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", ResponseCache.PLANTS_ALL);
+        request.setParameter("limit", "2");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(controller));
+        return response;
+    }
+}
@@ -0,0 +1,103 @@
+package org.unimelb.common.limit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RequestLimiterTest {
+
+    @Test
+    public void bucketAllowsBurstThenRefillRate() {
+        long second = TimeUnit.SECONDS.toNanos(1);
+        TokenBucket bucket = new TokenBucket(3, 1, 0);
+
+        assertEquals(0, bucket.tryConsume(1, 0));
+        assertEquals(0, bucket.tryConsume(2, 0));
+        long wait = bucket.tryConsume(1, 0);
+        assertTrue(wait > 0 && wait <= second, "wait " + wait);
+
+        assertEquals(0, bucket.tryConsume(1, second));
+        assertTrue(bucket.tryConsume(2, second) > second);
+    }
+
+    @Test
+    public void activeClientKeepsItsBucketPastTheFirstExpiry() throws InterruptedException {
+        // 10 tokens a second, an empty bucket of 5 is full again (and may be dropped) after 500 ms
+        RequestLimiter limiter = new RequestLimiter(600, 5, 100, 10, 0, 0);
+        assertTrue(limiter.acquire("ip:1", 5).admitted());
+        limiter.release();
+
+        Thread.sleep(250);
+        assertTrue(limiter.acquire("ip:1", 2).admitted());
+        limiter.release();
+        // past the 500 ms the bucket was first stored for: about 3.5 tokens, not a new burst of 5
+        Thread.sleep(300);
+        assertFalse(limiter.acquire("ip:1", 5).admitted());
+    }
+
+    @Test
+    public void clientsAreLimitedSeparately() throws InterruptedException {
+        RequestLimiter limiter = new RequestLimiter(60, 2, 100, 10, 0, 0);
+
+        for (int i = 0; i < 2; i++) {
+            assertTrue(limiter.acquire("ip:1", 1).admitted());
+            limiter.release();
+        }
+        RequestLimiter.Decision rejected = limiter.acquire("ip:1", 1);
+        assertFalse(rejected.admitted());
+        assertEquals("rate", rejected.reason());
+        assertTrue(rejected.retryAfterMillis() > 0 && rejected.retryAfterMillis() <= 1001);
+
+        assertTrue(limiter.acquire("ip:2", 1).admitted());
+    }
+
+    @Test
+    public void inFlightCapQueuesThenRejects() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RequestLimiter limiter = new RequestLimiter(6000, 100, 100, 1, 1, 2000);
+        limiter.bindTo(registry, "test");
+
+        assertTrue(limiter.acquire("a", 1).admitted());
+        CompletableFuture<RequestLimiter.Decision> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire("b", 1);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (limiter.queued() == 0) {
+            Thread.sleep(5);
+        }
+
+        RequestLimiter.Decision full = limiter.acquire("c", 1);
+        assertFalse(full.admitted());
+        assertEquals("queue_full", full.reason());
+        assertEquals(1.0, registry.get("limiter.queue").gauge().value());
+
+        limiter.release();
+        assertTrue(waiting.get(2, TimeUnit.SECONDS).admitted());
+        assertEquals(1, limiter.inFlight());
+        assertEquals(1.0, registry.get("limiter.rejected").tag("reason", "queue_full").functionCounter().count());
+    }
+
+    @Test
+    public void withoutWaitOverTheCapIsRejectedAndRefunded() throws InterruptedException {
+        RequestLimiter limiter = new RequestLimiter(1, 1, 100, 1, 10, 0);
+
+        assertTrue(limiter.acquire("a", 1).admitted());
+        RequestLimiter.Decision busy = limiter.acquire("b", 1);
+        assertFalse(busy.admitted());
+        assertEquals("queue_full", busy.reason());
+        assertEquals(0, limiter.queued());
+
+        // b's only token was given back, it is not rate limited for the rejection
+        limiter.release();
+        assertTrue(limiter.acquire("b", 1).admitted());
+    }
+}
@@ -0,0 +1,64 @@
+package org.unimelb.common.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LocalFileBlobStoreTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    public void identicalContentIsStoredOnce() throws Exception {
+        LocalFileBlobStore store = new LocalFileBlobStore(root.toString());
+        byte[] photo = "same photo".getBytes(StandardCharsets.UTF_8);
+
+        String first = store.put(photo);
+        String second = store.put(photo.clone());
+
+        assertEquals(first, second);
+        assertEquals(BlobStore.sha256(photo), first);
+        try (var files = Files.walk(root)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    public void readAndTransferReturnTheContent() throws Exception {
+        LocalFileBlobStore store = new LocalFileBlobStore(root.toString());
+        byte[] photo = new byte[100_000];
+        for (int i = 0; i < photo.length; i++) {
+            photo[i] = (byte) i;
+        }
+        String hash = store.put(photo);
+
+        assertTrue(store.exists(hash));
+        assertEquals(photo.length, store.size(hash));
+        assertArrayEquals(photo, store.readAllBytes(hash));
+        assertArrayEquals(Arrays.copyOf(photo, 12), store.readHead(hash, 12));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(photo.length, store.transferTo(hash, Channels.newChannel(out)));
+        assertArrayEquals(photo, out.toByteArray());
+    }
+
+    @Test
+    public void rejectsKeysThatAreNotHashes() throws Exception {
+        LocalFileBlobStore store = new LocalFileBlobStore(root.toString());
+        assertFalse(store.exists(BlobStore.sha256(new byte[]{1})));
+        assertThrows(IllegalArgumentException.class, () -> store.read("../../etc/passwd"));
+    }
+}
@@ -0,0 +1,72 @@
+package org.unimelb.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ImageUtilTest {
+
+    /** JPEG with an APP1 Exif segment (big endian TIFF) holding only the orientation tag */
+    private static byte[] withOrientation(byte[] jpeg, int orientation) throws IOException {
+        ByteArrayOutputStream tiff = new ByteArrayOutputStream();
+        tiff.write("MM".getBytes(StandardCharsets.US_ASCII));
+        tiff.write(new byte[]{0, 42, 0, 0, 0, 8});
+        tiff.write(new byte[]{0, 1});
+        tiff.write(new byte[]{0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, (byte) orientation, 0, 0});
+        tiff.write(new byte[]{0, 0, 0, 0});
+        byte[] exif = tiff.toByteArray();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(jpeg, 0, 2);
+        int length = 2 + 6 + exif.length;
+        out.write(new byte[]{(byte) 0xFF, (byte) 0xE1, (byte) (length >> 8), (byte) length});
+        out.write(new byte[]{'E', 'x', 'i', 'f', 0, 0});
+        out.write(exif);
+        out.write(jpeg, 2, jpeg.length - 2);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void readsExifOrientation() throws IOException {
+        byte[] jpeg = ImageUtil.toJpeg(new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB));
+        assertEquals(1, ImageUtil.exifOrientation(jpeg));
+        assertEquals(6, ImageUtil.exifOrientation(withOrientation(jpeg, 6)));
+        assertEquals(1, ImageUtil.exifOrientation(new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    public void corruptIfdOffsetsAreIgnored() throws IOException {
+        byte[] jpeg = withOrientation(ImageUtil.toJpeg(new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB)), 6);
+        // IFD offset after SOI, APP1 header, "Exif\0\0" and the TIFF byte order / magic
+        int at = 2 + 4 + 6 + 4;
+        for (int offset : new int[]{-8, Integer.MAX_VALUE, 4, 2000}) {
+            byte[] corrupt = jpeg.clone();
+            corrupt[at] = (byte) (offset >>> 24);
+            corrupt[at + 1] = (byte) (offset >>> 16);
+            corrupt[at + 2] = (byte) (offset >>> 8);
+            corrupt[at + 3] = (byte) offset;
+            assertEquals(1, ImageUtil.exifOrientation(corrupt), "offset " + offset);
+        }
+    }
+
+    @Test
+    public void visionImageIsUprightSmallAndWithoutExif() throws IOException {
+        BufferedImage camera = new BufferedImage(4000, 3000, BufferedImage.TYPE_INT_RGB);
+        byte[] original = withOrientation(ImageUtil.toJpeg(camera), 6);
+
+        BufferedImage upright = ImageUtil.applyOrientation(ImageUtil.read(original), ImageUtil.exifOrientation(original));
+        byte[] jpeg = ImageUtil.toJpeg(ImageUtil.fit(upright, 1024), 0.8f);
+
+        BufferedImage decoded = ImageUtil.read(jpeg);
+        assertEquals(768, decoded.getWidth());
+        assertEquals(1024, decoded.getHeight());
+        assertEquals(1, ImageUtil.exifOrientation(jpeg));
+        assertTrue(jpeg.length < original.length);
+    }
+}
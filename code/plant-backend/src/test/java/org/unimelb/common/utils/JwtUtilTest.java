@@ -0,0 +1,81 @@
+package org.unimelb.common.utils;
+
+import com.alibaba.fastjson2.JSON;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.unimelb.security.vo.TokenClaims;
+import org.unimelb.user.entity.User;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JwtUtilTest {
+
+    private static final String SECRET = "12345678901234567890123456789012";
+
+    private static JwtUtil jwtUtil() {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpire", 600L);
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheSize", 100);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setUserId(42L);
+        user.setUsername("zhangsan");
+        user.setPassword("$2a$10$ki4GC8ZK4kHXGpmAhYj3vOhKBx4Tym/ugeNpqx2IYko7ekDMxe4EW");
+        user.setEmail("zhangsan@example.com");
+        user.setUserType("user");
+        user.setAvatarData(new byte[64 * 1024]);
+        user.setTokenVersion(3);
+        return user;
+    }
+
+    @Test
+    public void compactTokenCarriesOnlyIdRoleAndVersion() {
+        JwtUtil jwtUtil = jwtUtil();
+        String jwt = jwtUtil.createJwt(user());
+
+        assertTrue(jwt.length() < 300, "token length " + jwt.length());
+        assertEquals(new TokenClaims(42L, "user", 3), jwtUtil.parseJwt("Bearer " + jwt));
+    }
+
+    @Test
+    public void legacyTokenIsStillAccepted() {
+        User user = user();
+        user.setAvatarData(null);
+        String legacy = Jwts.builder()
+                .setSubject(JSON.toJSONString(user))
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertEquals(new TokenClaims(42L, "user", 0), jwtUtil().parseJwt(legacy));
+    }
+
+    @Test
+    public void verifiedTokensAreCachedAndTamperedOnesRejected() {
+        JwtUtil jwtUtil = jwtUtil();
+        String jwt = jwtUtil.createJwt(user());
+        TokenClaims first = jwtUtil.parseJwt(jwt);
+
+        assertSame(first, jwtUtil.parseJwt("Bearer " + jwt));
+        // a different payload never hits the cache entry of the genuine token
+        String[] parts = jwt.split("\\.");
+        String forged = parts[0] + "." + parts[1].substring(0, parts[1].length() - 2) + "x" + parts[1].charAt(parts[1].length() - 1) + "." + parts[2];
+        assertThrows(JwtException.class, () -> jwtUtil.parseJwt(forged));
+        assertFalse(jwtUtil.validJwt(forged));
+    }
+}
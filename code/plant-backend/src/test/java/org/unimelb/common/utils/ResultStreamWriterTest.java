@@ -0,0 +1,55 @@
+package org.unimelb.common.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ResultStreamWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /** what the stream endpoints do: write every row of the cursor, then finish */
+    private byte[] stream(Consumer<Consumer<Object>> cursor) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ResultStreamWriter writer = new ResultStreamWriter(objectMapper, out)) {
+            cursor.accept(writer::writeUnchecked);
+            writer.finish();
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void completeStreamIsAResult() throws Exception {
+        byte[] body = stream(rows -> List.of(Map.of("id", 1), Map.of("id", 2)).forEach(rows));
+
+        JsonNode result = objectMapper.readTree(body);
+        assertEquals(200, result.get("code").asInt());
+        assertEquals(2, result.get("data").size());
+    }
+
+    @Test
+    public void failureMidStreamLeavesTheBodyUnterminated() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThrows(IllegalStateException.class, () -> {
+            try (ResultStreamWriter writer = new ResultStreamWriter(objectMapper, out)) {
+                writer.write(Map.of("id", 1));
+                throw new IllegalStateException("cursor closed");
+            }
+        });
+
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertFalse(body.endsWith("]}"), body);
+        assertThrows(JsonProcessingException.class, () -> objectMapper.readTree(body));
+    }
+}
@@ -0,0 +1,60 @@
+package org.unimelb.plant.index;
+
+import org.junit.jupiter.api.Test;
+import org.unimelb.plant.entity.Plant;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PlantSpatialIndexTest {
+
+    private static Plant plant(long id, double latitude, double longitude) {
+        Plant plant = new Plant();
+        plant.setPlantId(id);
+        plant.setLatitude(latitude);
+        plant.setLongitude(longitude);
+        return plant;
+    }
+
+    @Test
+    public void nearestFirstWithinRadius() {
+        PlantSpatialIndex index = new PlantSpatialIndex();
+        index.rebuild(List.of(
+                plant(1, -37.7980, 144.9610),   // ~100 m
+                plant(2, -37.7972, 144.9610),   // ~10 m
+                plant(3, -37.8136, 144.9631),   // Melbourne CBD, ~1.8 km
+                plant(4, -33.8688, 151.2093)    // Sydney
+        ));
+        index.add(plant(5, -37.7971, 144.9615)); // ~40 m
+
+        List<Long> ids = index.searchNearBy(-37.7971, 144.9610, 1000, 200);
+        assertEquals(List.of(2L, 5L, 1L), ids);
+
+        assertTrue(index.searchNearBy(-37.7971, 144.9610, 5000, 200).contains(3L));
+        assertEquals(List.of(2L), index.searchNearBy(-37.7971, 144.9610, 1000, 1));
+    }
+
+    @Test
+    public void wrapsAroundTheAntimeridian() {
+        PlantSpatialIndex index = new PlantSpatialIndex();
+        index.rebuild(List.of(plant(1, 0, 179.9995), plant(2, 0, -179.9995)));
+
+        assertEquals(List.of(1L, 2L), index.searchNearBy(0, 179.9999, 500, 200));
+    }
+
+    @Test
+    public void plantsAddedDuringRebuildAreKept() {
+        PlantSpatialIndex index = new PlantSpatialIndex();
+        index.rebuild(List.of(plant(1, -37.7980, 144.9610)));
+
+        index.beginRebuild();
+        // saved after the rows were read: only in the old index so far
+        index.add(plant(2, -37.7972, 144.9610));
+        index.rebuild(List.of(plant(1, -37.7980, 144.9610)));
+
+        assertEquals(List.of(2L, 1L), index.searchNearBy(-37.7971, 144.9610, 1000, 200));
+        assertEquals(2, index.size());
+    }
+}
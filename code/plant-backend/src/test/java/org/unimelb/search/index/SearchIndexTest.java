@@ -0,0 +1,89 @@
+package org.unimelb.search.index;
+
+import org.junit.jupiter.api.Test;
+import org.unimelb.plant.entity.Plant;
+import org.unimelb.search.vo.SearchHit;
+import org.unimelb.wiki.entity.PlantWiki;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SearchIndexTest {
+
+    private static PlantWiki wiki(long id, String name, String scientificName, String description) {
+        PlantWiki wiki = new PlantWiki();
+        wiki.setPlantWikiId(id);
+        wiki.setName(name);
+        wiki.setScientificName(scientificName);
+        wiki.setDescription(description);
+        return wiki;
+    }
+
+    private static Plant plant(long id, String name, String description) {
+        Plant plant = new Plant();
+        plant.setPlantId(id);
+        plant.setName(name);
+        plant.setDescription(description);
+        return plant;
+    }
+
+    private static SearchIndex sample() {
+        SearchIndex index = new SearchIndex();
+        index.addWiki(wiki(1, "Monstera", "Monstera deliciosa", "Large split leaves, likes bright indirect light"));
+        index.addWiki(wiki(2, "Snake Plant", "Dracaena trifasciata", "Hardy, tolerates low light"));
+        index.addWiki(wiki(3, "Peace Lily", "Spathiphyllum wallisii", "Flowers in shade, grows near a monstera"));
+        return index;
+    }
+
+    @Test
+    public void nameMatchesRankAboveDescriptionMatches() {
+        List<SearchHit> hits = sample().search("monstera", null, 10);
+        assertEquals(List.of(1L, 3L), hits.stream().map(SearchHit::getId).toList());
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+    }
+
+    @Test
+    public void lastWordMatchesAsPrefixAndEveryWordMustMatch() {
+        assertEquals(List.of(1L), sample().search("Monstera deli", null, 10).stream().map(SearchHit::getId).toList());
+        assertEquals(List.of(2L), sample().search("sna", null, 10).stream().map(SearchHit::getId).toList());
+        assertTrue(sample().search("monstera snake", null, 10).isEmpty());
+    }
+
+    @Test
+    public void plantsAreAddedAndReplacedIncrementally() {
+        SearchIndex index = sample();
+        index.addPlant(plant(7, "My monstera", "on the balcony"));
+        assertEquals(List.of(7L), index.search("balc", SearchIndex.TYPE_PLANT, 10).stream().map(SearchHit::getId).toList());
+
+        index.addPlant(plant(7, "My fern", "in the kitchen"));
+        assertTrue(index.search("balcony", null, 10).isEmpty());
+        assertEquals("plant", index.search("fern", null, 10).get(0).getType());
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    public void accentsAndCaseAreIgnored() {
+        SearchIndex index = new SearchIndex();
+        index.addWiki(wiki(9, "Éucalyptus", null, null));
+        assertEquals(1, index.search("EUCA", null, 10).size());
+    }
+
+    @Test
+    public void changesDuringRebuildAreKept() {
+        SearchIndex index = sample();
+
+        index.beginRebuild();
+        // saved / removed after the rows were read: only in the old index so far
+        index.addPlant(plant(8, "Balcony fern", null));
+        index.removeWiki(2L);
+        index.rebuild(List.of(), List.of(
+                wiki(1, "Monstera", "Monstera deliciosa", null),
+                wiki(2, "Snake Plant", "Dracaena trifasciata", null)));
+
+        assertEquals(List.of(8L), index.search("fern", null, 10).stream().map(SearchHit::getId).toList());
+        assertTrue(index.search("snake", null, 10).isEmpty());
+        assertEquals(2, index.size());
+    }
+}
@@ -0,0 +1,96 @@
+package org.unimelb.wiki.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.unimelb.search.index.SearchIndex;
+import org.unimelb.wiki.entity.PlantWiki;
+import org.unimelb.wiki.mapper.WikiMapper;
+import org.unimelb.wiki.vo.WikiDelta;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WikiSnapshotCacheTest {
+
+    private WikiMapper wikiMapper;
+
+    private WikiSnapshotCache cache;
+
+    private static PlantWiki wiki(long id, String name, long version) {
+        PlantWiki wiki = new PlantWiki();
+        wiki.setPlantWikiId(id);
+        wiki.setName(name);
+        wiki.setVersion(version);
+        return wiki;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        wikiMapper = mock(WikiMapper.class);
+        cache = new WikiSnapshotCache();
+        ReflectionTestUtils.setField(cache, "wikiMapper", wikiMapper);
+        ReflectionTestUtils.setField(cache, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(cache, "searchIndex", new SearchIndex());
+
+        when(wikiMapper.selectVersion()).thenReturn(3L);
+        when(wikiMapper.selectList(any())).thenReturn(List.of(wiki(1, "Monstera", 1), wiki(2, "Fern", 2), wiki(3, "Aloe", 3)));
+        cache.refresh();
+    }
+
+    @Test
+    public void snapshotIsOnlyRebuiltWhenTheVersionMoves() throws IOException {
+        WikiSnapshot first = cache.get();
+        cache.refresh();
+        assertSame(first, cache.get());
+        verify(wikiMapper, times(1)).selectList(any());
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(first.gzip()))) {
+            assertArrayEquals(first.json(), in.readAllBytes());
+        }
+
+        when(wikiMapper.selectVersion()).thenReturn(4L);
+        when(wikiMapper.selectList(any())).thenReturn(List.of(wiki(1, "Monstera", 1), wiki(2, "Boston Fern", 4), wiki(3, "Aloe", 3)));
+        cache.refresh();
+        assertEquals(4L, cache.get().version());
+        assertNotEquals(first.etag(), cache.get().etag());
+    }
+
+    @Test
+    public void deltaHasChangedRowsAndRemovedIds() {
+        when(wikiMapper.selectVersion()).thenReturn(5L);
+        when(wikiMapper.selectList(any())).thenReturn(List.of(wiki(1, "Monstera", 1), wiki(2, "Boston Fern", 4)));
+        cache.refresh();
+
+        WikiDelta delta = cache.changesSince(3);
+        assertFalse(delta.getFull());
+        assertEquals(5L, delta.getVersion());
+        assertEquals(List.of(2L), delta.getWikis().stream().map(PlantWiki::getPlantWikiId).toList());
+        assertEquals(List.of(3L), delta.getRemovedIds());
+
+        assertTrue(cache.changesSince(5).getWikis().isEmpty());
+        assertTrue(cache.changesSince(5).getRemovedIds().isEmpty());
+    }
+
+    @Test
+    public void versionsBeforeTheFirstSnapshotGetTheFullWiki() {
+        WikiDelta delta = cache.changesSince(1);
+        assertTrue(delta.getFull());
+        assertEquals(3, delta.getWikis().size());
+    }
+}
@@ -0,0 +1,38 @@
+#!/bin/bash
+# Concurrent plant AI questions against a running backend.
+#
+# Compare the two modes with a small worker pool. All requests come from one address, so lift the
+# /api/plant-ai admission limits (AIRequestLimitFilter) for the test or most answers are 429, e.g.
+#   LIMITS="--plant.ai-limit.permits-per-minute=100000 --plant.ai-limit.burst=100000 --plant.ai-limit.max-in-flight=1000"
+#   java -jar app.jar --server.tomcat.threads.max=20 $LIMITS
+#   java -jar app.jar --server.tomcat.threads.max=20 $LIMITS --spring.profiles.active=dev,local,virtual-threads
+# On platform threads requests beyond the worker count queue behind the slow ones, so the total
+# time grows in steps of one AI answer; with virtual threads all requests are in flight at once.
+# No results of this comparison are checked in, it has not been run against the real model endpoint.
+#
+# Usage: ./load-test-ai.sh [concurrency] [requests]
+
+BASE_URL="${BASE_URL:-http://localhost:9999}"
+CONCURRENCY="${1:-100}"
+REQUESTS="${2:-200}"
+# every question is different, otherwise AIResponseCache answers after the first one
+RUN_ID=$(date +%s)
+
+echo "🌱 ${REQUESTS} plant AI requests, ${CONCURRENCY} concurrent -> ${BASE_URL}"
+echo "=================================="
+
+START=$(date +%s.%N)
+RESULTS=$(seq 1 "$REQUESTS" | xargs -P "$CONCURRENCY" -I{} \
+  curl -s -o /dev/null -G "$BASE_URL/api/plant-ai/ask" \
+    --data-urlencode "question=How often should I water tomato plant ${RUN_ID}-{}?" \
+    -w "%{http_code} %{time_total}\n")
+END=$(date +%s.%N)
+
+echo "$RESULTS" | awk '{ print $1 }' | sort | uniq -c | awk '{ print "HTTP " $2 ": " $1 }'
+echo "$RESULTS" | awk '{ print $2 }' | sort -n | awk '
+  function at(q,  i) { i = int(NR * q); if (i < 1) i = 1; return t[i] }
+  { t[NR] = $1; sum += $1 }
+  END {
+    if (NR > 0) printf "latency avg %.2fs  p50 %.2fs  p95 %.2fs  max %.2fs\n", sum / NR, at(0.5), at(0.95), t[NR]
+  }'
+echo "total $(echo "$END - $START" | bc)s"